@@ -2,8 +2,10 @@ package trantantai.trantantai;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class TrantantaiApplication {
 
 	public static void main(String[] args) {
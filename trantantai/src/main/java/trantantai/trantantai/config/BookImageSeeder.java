@@ -7,6 +7,7 @@ import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 import trantantai.trantantai.entities.Book;
 import trantantai.trantantai.repositories.IBookRepository;
+import trantantai.trantantai.services.BookService;
 
 import java.io.IOException;
 import java.util.HashMap;
@@ -29,6 +30,7 @@ public class BookImageSeeder implements CommandLineRunner {
 
     private final IBookRepository bookRepository;
     private final Cloudinary cloudinary;
+    private final BookService bookService;
 
     // Map book titles to Open Library cover URLs (ISBN-based or ID-based)
     // Using Open Library Covers API: https://covers.openlibrary.org/
@@ -69,9 +71,10 @@ public class BookImageSeeder implements CommandLineRunner {
         BOOK_COVER_URLS.put("Sapiens: Lược Sử Loài Người", "https://covers.openlibrary.org/b/isbn/9780062316097-L.jpg"); // Sapiens
     }
 
-    public BookImageSeeder(IBookRepository bookRepository, Cloudinary cloudinary) {
+    public BookImageSeeder(IBookRepository bookRepository, Cloudinary cloudinary, BookService bookService) {
         this.bookRepository = bookRepository;
         this.cloudinary = cloudinary;
+        this.bookService = bookService;
     }
 
     @Override
@@ -100,7 +103,8 @@ public class BookImageSeeder implements CommandLineRunner {
                 String cloudinaryUrl = uploadFromUrl(coverUrl, book.getTitle());
                 if (cloudinaryUrl != null) {
                     book.setImageUrls(List.of(cloudinaryUrl));
-                    bookRepository.save(book);
+                    // Through BookService so version/lastModified change for incremental exports
+                    bookService.updateBook(book);
                     updated++;
                     System.out.println(">>> Uploaded cover for: " + book.getTitle());
                 } else {
@@ -0,0 +1,90 @@
+package trantantai.trantantai.config;
+
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+import trantantai.trantantai.constants.BookSortKey;
+
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Startup check that every whitelisted book listing sort is served by an index.
+ * Explains each {@link BookSortKey} sort, with and without a category filter, and logs a
+ * warning when the winning plan still contains an in-memory SORT stage.
+ */
+@Component
+public class BookQueryPlanCheck {
+
+    private static final Logger logger = Logger.getLogger(BookQueryPlanCheck.class.getName());
+
+    private static final int PAGE_SIZE = 20;
+    // Any category id works; only the shape of the filter matters to the planner
+    private static final String SAMPLE_CATEGORY_ID = "000000000000000000000000";
+
+    private final MongoTemplate mongoTemplate;
+
+    @Autowired
+    public BookQueryPlanCheck(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void checkSortPlans() {
+        try {
+            int inMemorySorts = 0;
+            for (BookSortKey key : BookSortKey.values()) {
+                for (Document filter : List.of(new Document(), new Document("categoryId", SAMPLE_CATEGORY_ID))) {
+                    Document explain = mongoTemplate.getCollection("book")
+                            .find(filter)
+                            .sort(sortOf(key))
+                            .limit(PAGE_SIZE)
+                            .explain();
+                    Object winningPlan = explain.get("queryPlanner", Document.class).get("winningPlan");
+                    if (hasSortStage(winningPlan)) {
+                        inMemorySorts++;
+                        logger.warning("Book listing sort '" + key.getParam() + "' with filter " + filter.toJson()
+                                + " uses an in-memory SORT stage");
+                    }
+                }
+            }
+            if (inMemorySorts == 0) {
+                logger.info("All book listing sorts are served by indexes");
+            }
+        } catch (Exception e) {
+            logger.log(Level.WARNING, "Could not check book query plans: " + e.getMessage());
+        }
+    }
+
+    private Bson sortOf(BookSortKey key) {
+        Document sort = new Document(key.getField(), 1);
+        sort.putIfAbsent("_id", 1);
+        return sort;
+    }
+
+    // Walks inputStage / inputStages; the plan shape differs between classic and SBE engines
+    private boolean hasSortStage(Object plan) {
+        if (plan instanceof Document stage) {
+            if ("SORT".equals(stage.getString("stage"))) {
+                return true;
+            }
+            for (Object value : stage.values()) {
+                if (hasSortStage(value)) {
+                    return true;
+                }
+            }
+        } else if (plan instanceof List<?> stages) {
+            for (Object value : stages) {
+                if (hasSortStage(value)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
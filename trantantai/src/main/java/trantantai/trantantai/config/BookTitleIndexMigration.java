@@ -0,0 +1,43 @@
+package trantantai.trantantai.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Migration to drop the single-field title index on the book collection.
+ * The title_id_idx compound index serves every query that used it.
+ */
+@Component
+public class BookTitleIndexMigration {
+
+    private static final Logger logger = Logger.getLogger(BookTitleIndexMigration.class.getName());
+
+    private final MongoTemplate mongoTemplate;
+
+    @Autowired
+    public BookTitleIndexMigration(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void dropTitleIndex() {
+        try {
+            // Name of the index the former @Indexed on Book.title created
+            mongoTemplate.getCollection("book").dropIndex("title");
+            logger.info("Dropped redundant index 'title' from book collection");
+        } catch (Exception e) {
+            // Index might not exist, which is fine
+            if (e.getMessage() != null && e.getMessage().contains("index not found")) {
+                logger.info("Index 'title' does not exist - no action needed");
+            } else {
+                logger.log(Level.WARNING, "Could not drop index (may not exist): " + e.getMessage());
+            }
+        }
+    }
+}
@@ -10,6 +10,7 @@ import org.springframework.web.bind.annotation.ModelAttribute;
 import trantantai.trantantai.entities.User;
 import trantantai.trantantai.repositories.IUserRepository;
 import trantantai.trantantai.services.CartService;
+import trantantai.trantantai.services.HomeFragmentCache;
 import trantantai.trantantai.services.WishlistService;
 
 @ControllerAdvice
@@ -18,12 +19,21 @@ public class GlobalControllerAdvice {
     private final CartService cartService;
     private final WishlistService wishlistService;
     private final IUserRepository userRepository;
+    private final HomeFragmentCache homeFragmentCache;
 
     @Autowired
-    public GlobalControllerAdvice(CartService cartService, WishlistService wishlistService, IUserRepository userRepository) {
+    public GlobalControllerAdvice(CartService cartService, WishlistService wishlistService, IUserRepository userRepository,
+                                  HomeFragmentCache homeFragmentCache) {
         this.cartService = cartService;
         this.wishlistService = wishlistService;
         this.userRepository = userRepository;
+        this.homeFragmentCache = homeFragmentCache;
+    }
+
+    // Header category menu, rendered once per catalog version
+    @ModelAttribute("categoryMenuHtml")
+    public String categoryMenuHtml() {
+        return homeFragmentCache.getCategoryMenuHtml();
     }
 
     @ModelAttribute("cartCount")
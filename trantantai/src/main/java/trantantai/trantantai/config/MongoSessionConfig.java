@@ -0,0 +1,31 @@
+package trantantai.trantantai.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.session.config.annotation.web.http.EnableSpringHttpSession;
+import trantantai.trantantai.services.MongoSessionRepository;
+
+import java.time.Duration;
+
+/**
+ * Replaces the servlet container's in-memory HttpSession with sessions stored in Mongo
+ * (session.store=mongo), so the app can run on several nodes without sticky routing.
+ * Spring Session's filter runs ahead of Spring Security, so the security context, cart
+ * and MoMo payment attributes all live in the shared store.
+ */
+@Configuration
+@EnableSpringHttpSession
+@ConditionalOnProperty(name = "session.store", havingValue = "mongo")
+public class MongoSessionConfig {
+
+    @Bean
+    public MongoSessionRepository sessionRepository(MongoTemplate mongoTemplate,
+                                                    @Value("${server.servlet.session.timeout:30m}") Duration timeout) {
+        MongoSessionRepository repository = new MongoSessionRepository(mongoTemplate, timeout);
+        repository.createIndexes();
+        return repository;
+    }
+}
@@ -15,6 +15,8 @@ import trantantai.trantantai.repositories.IBookRepository;
 import trantantai.trantantai.repositories.ICategoryRepository;
 import trantantai.trantantai.repositories.IInvoiceRepository;
 import trantantai.trantantai.repositories.IUserRepository;
+import trantantai.trantantai.services.BookService;
+import trantantai.trantantai.services.CategoryService;
 
 import java.util.*;
 import java.util.concurrent.ThreadLocalRandom;
@@ -31,15 +33,21 @@ public class ReportDataSeeder implements CommandLineRunner {
     private final IBookRepository bookRepository;
     private final IUserRepository userRepository;
     private final IInvoiceRepository invoiceRepository;
+    private final BookService bookService;
+    private final CategoryService categoryService;
 
     public ReportDataSeeder(ICategoryRepository categoryRepository,
                             IBookRepository bookRepository,
                             IUserRepository userRepository,
-                            IInvoiceRepository invoiceRepository) {
+                            IInvoiceRepository invoiceRepository,
+                            BookService bookService,
+                            CategoryService categoryService) {
         this.categoryRepository = categoryRepository;
         this.bookRepository = bookRepository;
         this.userRepository = userRepository;
         this.invoiceRepository = invoiceRepository;
+        this.bookService = bookService;
+        this.categoryService = categoryService;
     }
 
     @Override
@@ -98,7 +106,9 @@ public class ReportDataSeeder implements CommandLineRunner {
         for (String name : categoryNames) {
             Category cat = new Category();
             cat.setName(name);
-            categories.add(categoryRepository.save(cat));
+            // Through CategoryService so the category cache and menu see it
+            categoryService.addCategory(cat);
+            categories.add(cat);
         }
         return categories;
     }
@@ -158,7 +168,9 @@ public class ReportDataSeeder implements CommandLineRunner {
                 book.setCategoryId(categories.get(catIndex).getId());
             }
 
-            books.add(bookRepository.save(book));
+            // Through BookService so version/lastModified are set for incremental exports
+            bookService.addBook(book);
+            books.add(book);
         }
         return books;
     }
@@ -0,0 +1,65 @@
+package trantantai.trantantai.constants;
+
+import org.springframework.data.domain.Sort;
+
+/**
+ * Whitelisted sort keys for book listings.
+ * Every key sorts ascending with _id as tiebreaker and is backed by a compound index
+ * declared on Book. Category listings have (categoryId, key, _id) indexes for ID, TITLE and PRICE;
+ * BookQueryPlanCheck logs any combination that still sorts in memory.
+ */
+public enum BookSortKey {
+    ID("id", "_id"),
+    TITLE("title", "title"),
+    AUTHOR("author", "author"),
+    PRICE("price", "price"),
+    QUANTITY("quantity", "quantity");
+
+    private final String param;
+    private final String field;
+
+    BookSortKey(String param, String field) {
+        this.param = param;
+        this.field = field;
+    }
+
+    public String getParam() {
+        return param;
+    }
+
+    public String getField() {
+        return field;
+    }
+
+    /**
+     * Sort on the key's field, then _id for a stable order.
+     */
+    public Sort toSort() {
+        return this == ID ? Sort.by("_id") : Sort.by(field).and(Sort.by("_id"));
+    }
+
+    /**
+     * Resolve a request parameter.
+     * @throws IllegalArgumentException if the key is not whitelisted
+     */
+    public static BookSortKey parse(String param) {
+        for (BookSortKey key : values()) {
+            if (key.param.equals(param)) {
+                return key;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported sort key: " + param);
+    }
+
+    /**
+     * Resolve a request parameter, falling back to {@link #ID} for unknown keys.
+     */
+    public static BookSortKey parseOrDefault(String param) {
+        for (BookSortKey key : values()) {
+            if (key.param.equals(param)) {
+                return key;
+            }
+        }
+        return ID;
+    }
+}
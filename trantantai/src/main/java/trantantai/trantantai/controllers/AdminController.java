@@ -65,7 +65,7 @@ public class AdminController {
             @RequestParam(defaultValue = "20") Integer pageSize,
             @RequestParam(defaultValue = "id") String sortBy) {
 
-        List<Book> books = bookService.getAllBooks(pageNo, pageSize, sortBy);
+        List<Book> books = bookService.getBooksWithCategory(null, pageNo, pageSize, sortBy);
         long totalBooks = bookService.getTotalBooks();
         int totalPages = (int) Math.ceil((double) totalBooks / pageSize);
 
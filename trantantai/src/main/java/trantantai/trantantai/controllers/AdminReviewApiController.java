@@ -17,6 +17,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import trantantai.trantantai.entities.Review;
 import trantantai.trantantai.repositories.IReviewRepository;
+import trantantai.trantantai.services.ReviewService;
 import trantantai.trantantai.viewmodels.ReviewGetVm;
 
 import java.util.List;
@@ -30,10 +31,12 @@ import java.util.Optional;
 public class AdminReviewApiController {
 
     private final IReviewRepository reviewRepository;
+    private final ReviewService reviewService;
 
     @Autowired
-    public AdminReviewApiController(IReviewRepository reviewRepository) {
+    public AdminReviewApiController(IReviewRepository reviewRepository, ReviewService reviewService) {
         this.reviewRepository = reviewRepository;
+        this.reviewService = reviewService;
     }
 
     @Operation(
@@ -126,11 +129,10 @@ public class AdminReviewApiController {
             @Parameter(description = "Review ID", example = "507f1f77bcf86cd799439099", required = true)
             @PathVariable String reviewId) {
 
-        if (!reviewRepository.existsById(reviewId)) {
+        if (!reviewService.deleteReview(reviewId)) {
             return ResponseEntity.notFound().build();
         }
 
-        reviewRepository.deleteById(reviewId);
         return ResponseEntity.ok(Map.of(
             "message", "Review deleted successfully",
             "deletedReviewId", reviewId
@@ -158,9 +160,7 @@ public class AdminReviewApiController {
             @Parameter(description = "Book ID", example = "507f1f77bcf86cd799439011", required = true)
             @PathVariable String bookId) {
 
-        List<Review> reviews = reviewRepository.findByBookIdOrderByCreatedAtDesc(bookId);
-        long count = reviews.size();
-        reviewRepository.deleteAll(reviews);
+        long count = reviewService.deleteReviewsByBookId(bookId);
 
         return ResponseEntity.ok(Map.of(
             "message", "All reviews for book deleted",
@@ -6,16 +6,32 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import trantantai.trantantai.constants.BookSortKey;
 import trantantai.trantantai.entities.Book;
+import trantantai.trantantai.entities.Category;
+import trantantai.trantantai.services.BookExportService;
 import trantantai.trantantai.services.BookService;
 import trantantai.trantantai.services.CategoryService;
+import trantantai.trantantai.viewmodels.BookBrowseVm;
+import trantantai.trantantai.viewmodels.BookCursorPageVm;
 import trantantai.trantantai.viewmodels.BookGetVm;
 import trantantai.trantantai.viewmodels.BookPostVm;
+import trantantai.trantantai.viewmodels.BookSuggestionVm;
+import trantantai.trantantai.viewmodels.BookSummaryVm;
 
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -28,50 +44,197 @@ public class BookApiController {
 
     private final BookService bookService;
     private final CategoryService categoryService;
+    private final BookExportService bookExportService;
 
     @Autowired
-    public BookApiController(BookService bookService, CategoryService categoryService) {
+    public BookApiController(BookService bookService, CategoryService categoryService,
+                             BookExportService bookExportService) {
         this.bookService = bookService;
         this.categoryService = categoryService;
+        this.bookExportService = bookExportService;
     }
 
-    @Operation(summary = "Get all books", description = "Retrieves a paginated list of all books")
-    @ApiResponse(responseCode = "200", description = "Successfully retrieved book list")
+    @Operation(summary = "Get all books", description = "Retrieves a paginated list of all books. Supports conditional GET via If-None-Match")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved book list"),
+        @ApiResponse(responseCode = "304", description = "Not modified (If-None-Match matched)"),
+        @ApiResponse(responseCode = "400", description = "Unsupported sort key")
+    })
     @GetMapping
     public ResponseEntity<List<BookGetVm>> getAllBooks(
             @RequestParam(defaultValue = "0") Integer pageNo,
             @RequestParam(defaultValue = "20") Integer pageSize,
-            @RequestParam(defaultValue = "id") String sortBy) {
-        List<Book> books = bookService.getAllBooks(pageNo, pageSize, sortBy);
+            @RequestParam(defaultValue = "id") String sortBy,
+            WebRequest request) {
+        if (!isValidSortKey(sortBy)) {
+            return ResponseEntity.badRequest().build();
+        }
+        // The validator query only runs when the client revalidates; otherwise the listing
+        // aggregation is the only round trip and the ETag is computed from its result
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            String currentETag = bookService.getBooksPageETag(null, pageNo, pageSize, sortBy);
+            if (request.checkNotModified(currentETag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(currentETag).build();
+            }
+        }
+
+        List<Book> books = bookService.getBooksWithCategory(null, pageNo, pageSize, sortBy);
+        String eTag = bookService.getBooksPageETag(null, pageNo, pageSize, sortBy, books);
         List<BookGetVm> bookVms = books.stream()
                 .map(BookGetVm::from)
                 .collect(Collectors.toList());
-        return ResponseEntity.ok(bookVms);
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .cacheControl(CacheControl.noCache())
+                .body(bookVms);
+    }
+
+    @Operation(summary = "Browse books with facets", description = "Retrieves a page of books together with category, price-range and stock counts for the same filter, computed in one aggregation")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved books and facets"),
+        @ApiResponse(responseCode = "400", description = "Unsupported sort key")
+    })
+    @GetMapping("/browse")
+    public ResponseEntity<BookBrowseVm> browseBooks(
+            @Parameter(description = "Category ID filter") @RequestParam(required = false) String categoryId,
+            @Parameter(description = "Minimum price in VND (inclusive)") @RequestParam(required = false) Double minPrice,
+            @Parameter(description = "Maximum price in VND (exclusive)") @RequestParam(required = false) Double maxPrice,
+            @Parameter(description = "true = in stock only, false = out of stock only") @RequestParam(required = false) Boolean inStock,
+            @Parameter(description = "Page number (0-indexed)") @RequestParam(defaultValue = "0") Integer pageNo,
+            @Parameter(description = "Page size") @RequestParam(defaultValue = "20") Integer pageSize,
+            @Parameter(description = "Sort key: id, title, author, price or quantity") @RequestParam(defaultValue = "id") String sortBy) {
+        if (!isValidSortKey(sortBy)) {
+            return ResponseEntity.badRequest().build();
+        }
+        BookService.BrowseResult result = bookService.browseBooks(categoryId, minPrice, maxPrice, inStock, pageNo, pageSize, sortBy);
+
+        List<BookSummaryVm> bookVms = result.books().stream()
+                .map(BookSummaryVm::from)
+                .collect(Collectors.toList());
+        List<BookBrowseVm.CategoryFacet> categories = new ArrayList<>();
+        for (Category category : categoryService.getCachedCategories()) {
+            Long count = result.categoryCounts().get(category.getId());
+            if (count != null) {
+                categories.add(new BookBrowseVm.CategoryFacet(category.getId(), category.getName(), count));
+            }
+        }
+        List<BookBrowseVm.PriceFacet> prices = result.priceBuckets().stream()
+                .map(bucket -> new BookBrowseVm.PriceFacet(bucket.min(), bucket.max(), bucket.count()))
+                .collect(Collectors.toList());
+
+        return ResponseEntity.ok(new BookBrowseVm(bookVms, result.total(), categories, prices,
+                result.inStock(), result.outOfStock()));
+    }
+
+    @Operation(summary = "Get books by cursor", description = "Retrieves books using keyset (cursor) pagination. Pass the returned nextCursor as 'after' to fetch the following page; no total count is computed")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved book page"),
+        @ApiResponse(responseCode = "400", description = "Invalid cursor, limit or sort key")
+    })
+    @GetMapping(params = "limit")
+    public ResponseEntity<BookCursorPageVm> getBooksByCursor(
+            @Parameter(description = "Opaque cursor from the previous page") @RequestParam(required = false) String after,
+            @Parameter(description = "Page size (1-1000)", required = true) @RequestParam Integer limit,
+            @Parameter(description = "Sort key: id, title, author, price or quantity (ignored when 'after' is given)") @RequestParam(defaultValue = "id") String sortBy) {
+        if (limit < 1 || limit > 1000) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            BookService.CursorPage page = bookService.getBooksAfter(after, limit, sortBy);
+            List<BookGetVm> bookVms = page.books().stream()
+                    .map(BookGetVm::from)
+                    .collect(Collectors.toList());
+            return ResponseEntity.ok(new BookCursorPageVm(bookVms, page.nextCursor()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @Operation(summary = "Get book by ID", description = "Retrieves a specific book by its unique identifier")
     @ApiResponses({
         @ApiResponse(responseCode = "200", description = "Book found"),
+        @ApiResponse(responseCode = "304", description = "Not modified (If-None-Match or If-Modified-Since matched)"),
         @ApiResponse(responseCode = "404", description = "Book not found")
     })
     @GetMapping("/{id}")
-    public ResponseEntity<BookGetVm> getBookById(@Parameter(description = "Book ID", required = true) @PathVariable String id) {
+    public ResponseEntity<BookGetVm> getBookById(@Parameter(description = "Book ID", required = true) @PathVariable String id,
+                                                 WebRequest request) {
+        Optional<BookService.BookValidators> validators = bookService.getBookValidators(id);
+        if (validators.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        String eTag = validators.get().eTag();
+        // If-None-Match takes precedence; If-Modified-Since is honoured for clients that only send that
+        long lastModified = validators.get().lastModified() != null ? validators.get().lastModified().getTime() : -1;
+        if (request.checkNotModified(eTag, lastModified)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+
         Optional<Book> bookOpt = bookService.getBookById(id);
         if (bookOpt.isEmpty()) {
             return ResponseEntity.notFound().build();
         }
-        return ResponseEntity.ok(BookGetVm.from(bookOpt.get()));
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(eTag)
+                .cacheControl(CacheControl.noCache());
+        if (lastModified >= 0) {
+            response.lastModified(lastModified);
+        }
+        return response.body(BookGetVm.from(bookOpt.get()));
     }
 
-    @Operation(summary = "Search books", description = "Searches books by keyword in title or author")
+    @Operation(summary = "Search books", description = "Searches books by keyword in title, author or category name (diacritic-insensitive), ranked by relevance. Returns book summaries; total match count is returned in the X-Total-Count header")
     @ApiResponse(responseCode = "200", description = "Search results returned")
     @GetMapping("/search")
-    public ResponseEntity<List<BookGetVm>> searchBooks(@Parameter(description = "Search keyword", required = true) @RequestParam String keyword) {
-        List<Book> books = bookService.searchBooks(keyword);
-        List<BookGetVm> bookVms = books.stream()
-                .map(BookGetVm::from)
+    public ResponseEntity<List<BookSummaryVm>> searchBooks(
+            @Parameter(description = "Search keyword", required = true) @RequestParam String keyword,
+            @Parameter(description = "Page number (0-indexed)") @RequestParam(defaultValue = "0") Integer pageNo,
+            @Parameter(description = "Page size") @RequestParam(defaultValue = "20") Integer pageSize) {
+        Page<Book> books = bookService.searchBooks(keyword, pageNo, pageSize);
+        List<BookSummaryVm> bookVms = books.getContent().stream()
+                .map(BookSummaryVm::from)
                 .collect(Collectors.toList());
-        return ResponseEntity.ok(bookVms);
+        return ResponseEntity.ok()
+                .header("X-Total-Count", String.valueOf(books.getTotalElements()))
+                .body(bookVms);
+    }
+
+    @Operation(summary = "Suggest titles and authors", description = "Returns typeahead suggestions for a typed prefix (diacritic-insensitive), answered from memory")
+    @ApiResponse(responseCode = "200", description = "Suggestions returned")
+    @GetMapping("/suggest")
+    public ResponseEntity<List<BookSuggestionVm>> suggest(
+            @Parameter(description = "Typed prefix", required = true) @RequestParam String q,
+            @Parameter(description = "Maximum number of suggestions (1-20)") @RequestParam(defaultValue = "8") Integer limit) {
+        int cappedLimit = Math.max(1, Math.min(limit, 20));
+        return ResponseEntity.ok(bookService.suggest(q, cappedLimit));
+    }
+
+    @Operation(summary = "Export the catalog", description = "Streams every book as NDJSON or CSV straight from a database cursor. " +
+               "With since, only books modified or deleted at or after that instant are exported, oldest change first; " +
+               "deletions are rows with deleted = true")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Export streamed"),
+        @ApiResponse(responseCode = "400", description = "Unsupported format, or since older than the 90-day deletion log")
+    })
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportBooks(
+            @Parameter(description = "Output format: ndjson or csv", example = "ndjson") @RequestParam(defaultValue = "ndjson") String format,
+            @Parameter(description = "Only books modified or deleted at or after this ISO-8601 instant (at most 90 days ago)", example = "2026-01-01T00:00:00Z")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Date since) {
+        try {
+            bookExportService.validateFormat(format);
+            bookExportService.validateSince(since);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        boolean csv = BookExportService.FORMAT_CSV.equalsIgnoreCase(format);
+        StreamingResponseBody body = output -> bookExportService.exportBooks(output, format, since);
+        return ResponseEntity.ok()
+                .contentType(csv ? new MediaType("text", "csv", StandardCharsets.UTF_8) : MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"books." + (csv ? "csv" : "ndjson") + "\"")
+                .cacheControl(CacheControl.noStore())
+                .body(body);
     }
 
     @Operation(summary = "Create a new book", description = "Creates a new book with the provided details")
@@ -175,4 +338,13 @@ public class BookApiController {
         Book updated = bookService.getBookById(id).orElseThrow();
         return ResponseEntity.ok(BookGetVm.from(updated));
     }
+
+    private boolean isValidSortKey(String sortBy) {
+        try {
+            BookSortKey.parse(sortBy);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
 }
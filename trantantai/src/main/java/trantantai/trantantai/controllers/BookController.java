@@ -4,19 +4,22 @@ import jakarta.servlet.http.HttpSession;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.util.UriComponentsBuilder;
 import trantantai.trantantai.daos.Item;
 import trantantai.trantantai.entities.Book;
 import trantantai.trantantai.services.BookService;
 import trantantai.trantantai.services.CartService;
 import trantantai.trantantai.services.CategoryService;
+import trantantai.trantantai.services.StockHoldService;
 
+import java.math.BigDecimal;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 @Controller
@@ -26,12 +29,15 @@ public class BookController {
     private final BookService bookService;
     private final CategoryService categoryService;
     private final CartService cartService;
+    private final StockHoldService stockHoldService;
 
     @Autowired
-    public BookController(BookService bookService, CategoryService categoryService, CartService cartService) {
+    public BookController(BookService bookService, CategoryService categoryService, CartService cartService,
+                          StockHoldService stockHoldService) {
         this.bookService = bookService;
         this.categoryService = categoryService;
         this.cartService = cartService;
+        this.stockHoldService = stockHoldService;
     }
 
     @GetMapping
@@ -40,39 +46,80 @@ public class BookController {
             @RequestParam(defaultValue = "0") Integer pageNo,
             @RequestParam(defaultValue = "20") Integer pageSize,
             @RequestParam(defaultValue = "id") String sortBy,
-            @RequestParam(required = false) String category) {
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(required = false) Boolean inStock) {
 
-        List<Book> books;
-        long totalBooks;
-
-        if (category != null && !category.isEmpty()) {
-            books = bookService.getBooksByCategory(category, pageNo, pageSize, sortBy);
-            totalBooks = bookService.countBooksByCategory(category);
-        } else {
-            books = bookService.getAllBooks(pageNo, pageSize, sortBy);
-            totalBooks = bookService.getTotalBooks();
-        }
+        // Page, total and facet counts in one aggregation
+        BookService.BrowseResult result = bookService.browseBooks(category, minPrice, maxPrice, inStock,
+                pageNo, pageSize, sortBy);
+        long totalBooks = result.total();
 
         int totalPages = (int) Math.ceil((double) totalBooks / pageSize);
 
-        model.addAttribute("books", books);
+        model.addAttribute("books", result.books());
         model.addAttribute("currentPage", pageNo);
-        model.addAttribute("categories", categoryService.getAllCategories());
+        model.addAttribute("categories", categoryService.getCachedCategories());
+        model.addAttribute("categoryCounts", result.categoryCounts());
+        model.addAttribute("priceBuckets", result.priceBuckets());
+        model.addAttribute("inStockCount", result.inStock());
+        model.addAttribute("outOfStockCount", result.outOfStock());
         model.addAttribute("totalPages", totalPages > 0 ? totalPages - 1 : 0);
         model.addAttribute("totalBooks", totalBooks);
 
+        // Active filters, and query-string fragments that keep them in facet and pagination links
+        model.addAttribute("pageBaseUrl", "/books");
+        model.addAttribute("selectedCategory", category);
+        model.addAttribute("minPrice", minPrice);
+        model.addAttribute("inStock", inStock);
+        model.addAttribute("filterQuery", filterQuery(sortBy, category, minPrice, maxPrice, inStock));
+        model.addAttribute("priceFilterQuery", filterQuery(sortBy, category, null, null, inStock));
+        model.addAttribute("stockFilterQuery", filterQuery(sortBy, category, minPrice, maxPrice, null));
+
         return "book/list";
     }
 
+    // "&name=value..." for the given filters (empty when none are active)
+    private static String filterQuery(String sortBy, String category, Double minPrice, Double maxPrice, Boolean inStock) {
+        UriComponentsBuilder query = UriComponentsBuilder.newInstance();
+        if (sortBy != null && !sortBy.isEmpty() && !"id".equals(sortBy)) {
+            query.queryParam("sortBy", sortBy);
+        }
+        if (category != null && !category.isEmpty()) {
+            query.queryParam("category", category);
+        }
+        if (minPrice != null) {
+            query.queryParam("minPrice", BigDecimal.valueOf(minPrice).stripTrailingZeros().toPlainString());
+        }
+        if (maxPrice != null) {
+            query.queryParam("maxPrice", BigDecimal.valueOf(maxPrice).stripTrailingZeros().toPlainString());
+        }
+        if (inStock != null) {
+            query.queryParam("inStock", inStock);
+        }
+        String encoded = query.encode().build().getQuery();
+        return encoded != null ? "&" + encoded : "";
+    }
+
     @GetMapping("/search")
     public String searchBooks(
             @RequestParam String keyword,
+            @RequestParam(defaultValue = "0") Integer pageNo,
+            @RequestParam(defaultValue = "20") Integer pageSize,
             Model model) {
-        List<Book> books = bookService.searchBooks(keyword);
-        model.addAttribute("books", books);
-        model.addAttribute("currentPage", 0);
-        model.addAttribute("totalPages", 0);
-        model.addAttribute("categories", categoryService.getAllCategories());
+        Page<Book> result = bookService.searchBooks(keyword, pageNo, pageSize);
+        int totalPages = result.getTotalPages();
+
+        model.addAttribute("books", result.getContent());
+        model.addAttribute("currentPage", pageNo);
+        model.addAttribute("totalPages", totalPages > 0 ? totalPages - 1 : 0);
+        model.addAttribute("totalBooks", result.getTotalElements());
+        model.addAttribute("categories", categoryService.getCachedCategories());
+        model.addAttribute("keyword", keyword);
+        model.addAttribute("pageBaseUrl", "/books/search");
+        model.addAttribute("filterQuery", "&" + UriComponentsBuilder.newInstance()
+                .queryParam("keyword", keyword).encode().build().getQuery());
         return "book/list";
     }
 
@@ -140,6 +187,18 @@ public class BookController {
                             @RequestParam double price,
                             @RequestParam(defaultValue = "1") int quantity) {
         var cart = cartService.getCart(session);
+
+        // Reservation mode: hold the whole line before adding, so stock problems show up now
+        Item existing = cart.getItem(id);
+        int lineQuantity = (existing != null ? existing.getQuantity() : 0) + quantity;
+        StockHoldService.HoldResult hold = stockHoldService.hold(session, id, lineQuantity);
+        if (!hold.held()) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "Chỉ còn " + hold.available() + " cuốn có thể đặt cho sách này.");
+            return ResponseEntity.ok(response);
+        }
+
         cart.addItems(new Item(id, name, price, quantity));
         cartService.updateCart(session, cart);
 
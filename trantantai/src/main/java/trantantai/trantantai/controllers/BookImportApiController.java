@@ -0,0 +1,72 @@
+package trantantai.trantantai.controllers;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import trantantai.trantantai.services.BookImportService;
+import trantantai.trantantai.viewmodels.BookImportResultVm;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * REST API controller for bulk catalog import.
+ * The request body is read as a stream, so large files are never held in memory.
+ */
+@Tag(name = "Book Import", description = "Bulk catalog import APIs - CSV / NDJSON upload")
+@RestController
+@RequestMapping("/admin/api/books/import")
+public class BookImportApiController {
+
+    private static final Logger logger = Logger.getLogger(BookImportApiController.class.getName());
+
+    private final BookImportService bookImportService;
+
+    @Autowired
+    public BookImportApiController(BookImportService bookImportService) {
+        this.bookImportService = bookImportService;
+    }
+
+    @Operation(summary = "Import books",
+               description = "Streams a CSV (header: title,author,price,quantity,categoryId,imageUrls) or NDJSON body " +
+                             "and inserts valid rows in batches. Returns a per-row error report.")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Import finished (see report for rejected rows)"),
+        @ApiResponse(responseCode = "400", description = "Unsupported format or invalid CSV header"),
+        @ApiResponse(responseCode = "500", description = "Could not read the upload")
+    })
+    @PostMapping(consumes = {"text/csv", "application/x-ndjson", "application/json", "text/plain"})
+    public ResponseEntity<?> importBooks(
+            @Parameter(description = "Input format: csv or ndjson (defaults from Content-Type)", example = "csv")
+            @RequestParam(required = false) String format,
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body) {
+
+        if (format == null || format.isBlank()) {
+            format = contentType.toLowerCase().startsWith("text/csv")
+                    ? BookImportService.FORMAT_CSV
+                    : BookImportService.FORMAT_NDJSON;
+        }
+
+        try {
+            BookImportResultVm result = bookImportService.importBooks(body, format);
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Failed to read book import upload", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Could not read the upload"));
+        }
+    }
+}
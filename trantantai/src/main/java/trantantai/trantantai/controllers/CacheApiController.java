@@ -0,0 +1,66 @@
+package trantantai.trantantai.controllers;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import trantantai.trantantai.services.CacheInvalidationBus;
+import trantantai.trantantai.services.CacheInvalidationEvent;
+import trantantai.trantantai.services.CartWriteBehind;
+import trantantai.trantantai.services.CategoryService;
+import trantantai.trantantai.services.HomeFragmentCache;
+import trantantai.trantantai.services.MongoSessionRepository;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * REST API controller for in-process cache monitoring.
+ */
+@Tag(name = "Cache", description = "Cache monitoring APIs - Hit/miss statistics of in-process caches")
+@RestController
+@RequestMapping("/admin/api/cache")
+public class CacheApiController {
+
+    private final CategoryService categoryService;
+    private final HomeFragmentCache homeFragmentCache;
+    private final CacheInvalidationBus cacheInvalidationBus;
+    private final CartWriteBehind cartWriteBehind;
+    // Present only with session.store=mongo
+    private final ObjectProvider<MongoSessionRepository> sessionRepository;
+
+    @Autowired
+    public CacheApiController(CategoryService categoryService, HomeFragmentCache homeFragmentCache,
+                              CacheInvalidationBus cacheInvalidationBus, CartWriteBehind cartWriteBehind,
+                              ObjectProvider<MongoSessionRepository> sessionRepository) {
+        this.categoryService = categoryService;
+        this.homeFragmentCache = homeFragmentCache;
+        this.cacheInvalidationBus = cacheInvalidationBus;
+        this.cartWriteBehind = cartWriteBehind;
+        this.sessionRepository = sessionRepository;
+    }
+
+    @Operation(summary = "Get cache statistics", description = "Retrieves size and hit/miss counters for each in-process cache")
+    @ApiResponse(responseCode = "200", description = "Successfully retrieved cache statistics")
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getCacheStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("categories", categoryService.getCacheStats());
+        stats.put("homeFragments", homeFragmentCache.getStats());
+        stats.put("invalidationBus", cacheInvalidationBus.getStats());
+        stats.put("cartWriteBehind", cartWriteBehind.getStats());
+        sessionRepository.ifAvailable(repository -> stats.put("sessionStore", repository.getStats()));
+        return ResponseEntity.ok(stats);
+    }
+
+    @Operation(summary = "Rebuild book search index", description = "Rebuilds the in-memory search and suggestion indexes and all other catalog caches from the database, on every app node")
+    @ApiResponse(responseCode = "200", description = "Search index rebuilt")
+    @PostMapping("/search-index/rebuild")
+    public ResponseEntity<Map<String, String>> rebuildSearchIndex() {
+        cacheInvalidationBus.publish(CacheInvalidationEvent.all());
+        return ResponseEntity.ok(Map.of("message", "Search index rebuilt"));
+    }
+}
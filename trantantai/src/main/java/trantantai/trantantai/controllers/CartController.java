@@ -9,6 +9,7 @@ import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
@@ -18,8 +19,12 @@ import trantantai.trantantai.constants.PaymentStatus;
 import trantantai.trantantai.services.MoMoService;
 import trantantai.trantantai.entities.Invoice;
 import trantantai.trantantai.services.CartService;
+import trantantai.trantantai.services.StockHoldService;
+import trantantai.trantantai.viewmodels.CartOperationVm;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Controller
@@ -28,21 +33,25 @@ public class CartController {
 
     private final CartService cartService;
     private final MoMoService momoService;
+    private final StockHoldService stockHoldService;
 
     @Autowired
-    public CartController(CartService cartService, MoMoService momoService) {
+    public CartController(CartService cartService, MoMoService momoService, StockHoldService stockHoldService) {
         this.cartService = cartService;
         this.momoService = momoService;
+        this.stockHoldService = stockHoldService;
     }
 
     @GetMapping
     public String showCart(HttpSession session, @NotNull Model model) {
-        // Validate cart and remove items of deleted books
-        int removedCount = cartService.validateAndCleanCart(session);
-        if (removedCount > 0) {
-            model.addAttribute("warning", removedCount + " sản phẩm đã bị xóa khỏi giỏ hàng vì không còn tồn tại.");
+        // Validate cart in one query: remove deleted books, refresh prices, flag stock problems
+        CartService.CartValidation validation = cartService.validateAndCleanCart(session);
+        String warning = validationWarning(validation);
+        if (warning != null) {
+            model.addAttribute("warning", warning);
         }
 
+        model.addAttribute("stockIssues", validation.insufficientStock());
         model.addAttribute("cart", cartService.getCart(session));
         model.addAttribute("totalPrice", cartService.getSumPrice(session));
         model.addAttribute("totalQuantity", cartService.getSumQuantity(session));
@@ -53,6 +62,8 @@ public class CartController {
     public String removeFromCartRedirect(HttpSession session, @PathVariable String id) {
         var cart = cartService.getCart(session);
         cart.removeItems(id);
+        cartService.updateCart(session, cart);
+        stockHoldService.release(session, id);
         return "redirect:/cart";
     }
 
@@ -61,6 +72,8 @@ public class CartController {
     public ResponseEntity<Map<String, Object>> removeFromCart(HttpSession session, @PathVariable String id) {
         var cart = cartService.getCart(session);
         cart.removeItems(id);
+        cartService.updateCart(session, cart);
+        stockHoldService.release(session, id);
 
         Map<String, Object> response = new HashMap<>();
         response.put("success", true);
@@ -76,7 +89,16 @@ public class CartController {
                              @PathVariable String id,
                              @PathVariable int quantity) {
         var cart = cartService.getCart(session);
+        // Only lines already in the cart can be updated; don't take a hold for anything else
+        if (cart.getItem(id) == null) {
+            return ResponseEntity.ok(itemNotInCart());
+        }
+        StockHoldService.HoldResult hold = stockHoldService.hold(session, id, quantity);
+        if (!hold.held()) {
+            return ResponseEntity.ok(holdRefused(hold));
+        }
         cart.updateItems(id, quantity);
+        cartService.updateCart(session, cart);
 
         Map<String, Object> response = new HashMap<>();
         response.put("success", true);
@@ -92,7 +114,16 @@ public class CartController {
                              @RequestParam String id,
                              @RequestParam int quantity) {
         var cart = cartService.getCart(session);
+        // Only lines already in the cart can be updated; don't take a hold for anything else
+        if (cart.getItem(id) == null) {
+            return ResponseEntity.ok(itemNotInCart());
+        }
+        StockHoldService.HoldResult hold = stockHoldService.hold(session, id, quantity);
+        if (!hold.held()) {
+            return ResponseEntity.ok(holdRefused(hold));
+        }
         cart.updateItems(id, quantity);
+        cartService.updateCart(session, cart);
 
         Map<String, Object> response = new HashMap<>();
         response.put("success", true);
@@ -102,25 +133,65 @@ public class CartController {
         return ResponseEntity.ok(response);
     }
 
+    // Apply several add / update / remove operations in one request, all or nothing
+    @PostMapping("/batch")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> batch(HttpSession session,
+                             @RequestBody List<CartOperationVm> operations) {
+        CartService.CartBatchResult result;
+        try {
+            result = cartService.applyBatch(session, operations);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("success", false, "message", e.getMessage()));
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", result.applied());
+        if (!result.applied()) {
+            response.put("message", !result.notFound().isEmpty()
+                    ? "Một số sách không còn tồn tại, giỏ hàng chưa được thay đổi."
+                    : "Không đủ hàng cho một số sách, giỏ hàng chưa được thay đổi.");
+            response.put("notFound", result.notFound());
+            response.put("insufficientStock", result.insufficientStock());
+        }
+        response.put("cartCount", cartService.getSumQuantity(session));
+        response.put("cartTotal", cartService.getSumPrice(session));
+
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping("/clearCart")
     public String clearCart(HttpSession session) {
         cartService.removeCart(session);
+        stockHoldService.releaseAll(session);
         return "redirect:/cart";
     }
 
     @GetMapping("/checkout")
     public String showCheckout(HttpSession session, Model model, RedirectAttributes redirectAttributes) {
-        // Validate cart and remove items of deleted books
-        int removedCount = cartService.validateAndCleanCart(session);
-        if (removedCount > 0) {
+        // Validate cart in one query: remove deleted books, refresh prices, flag stock problems
+        CartService.CartValidation validation = cartService.validateAndCleanCart(session);
+        String warning = validationWarning(validation);
+        if (warning != null) {
+            redirectAttributes.addFlashAttribute("warning", warning);
+        }
+
+        // Send the shopper back to the cart to fix quantities instead of failing at place-order
+        if (!validation.insufficientStock().isEmpty()) {
+            return "redirect:/cart";
+        }
+
+        // Reservation mode: hold every line for the duration of the checkout form / payment redirect
+        if (!cartService.holdCart(session).isEmpty()) {
             redirectAttributes.addFlashAttribute("warning",
-                removedCount + " sản phẩm đã bị xóa khỏi giỏ hàng vì không còn tồn tại.");
+                "Một số sách vừa được người khác giữ chỗ, vui lòng điều chỉnh số lượng trước khi thanh toán.");
+            return "redirect:/cart";
         }
 
         var cart = cartService.getCart(session);
 
         // Check if cart is empty
-        if (cart.getCartItems().isEmpty()) {
+        if (cart.isEmpty()) {
             redirectAttributes.addFlashAttribute("error", "Giỏ hàng trống. Vui lòng thêm sách trước khi thanh toán.");
             return "redirect:/cart";
         }
@@ -139,7 +210,7 @@ public class CartController {
         var cart = cartService.getCart(session);
 
         // Check if cart is empty
-        if (cart.getCartItems().isEmpty()) {
+        if (cart.isEmpty()) {
             redirectAttributes.addFlashAttribute("error", "Giỏ hàng trống. Không thể đặt hàng.");
             return "redirect:/cart";
         }
@@ -338,4 +409,32 @@ public class CartController {
         response.put("error", "Invoice not found");
         return ResponseEntity.notFound().build();
     }
+
+    private Map<String, Object> holdRefused(StockHoldService.HoldResult hold) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", false);
+        response.put("message", "Chỉ còn " + hold.available() + " cuốn có thể đặt cho sách này.");
+        return response;
+    }
+
+    private Map<String, Object> itemNotInCart() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", false);
+        response.put("message", "Sách này không có trong giỏ hàng.");
+        return response;
+    }
+
+    private String validationWarning(CartService.CartValidation validation) {
+        List<String> messages = new ArrayList<>();
+        if (validation.removedCount() > 0) {
+            messages.add(validation.removedCount() + " sản phẩm đã bị xóa khỏi giỏ hàng vì không còn tồn tại.");
+        }
+        if (!validation.repricedBooks().isEmpty()) {
+            messages.add("Giá của " + String.join(", ", validation.repricedBooks()) + " đã thay đổi và được cập nhật.");
+        }
+        if (!validation.insufficientStock().isEmpty()) {
+            messages.add("Một số sách không đủ số lượng trong kho, vui lòng điều chỉnh trước khi thanh toán.");
+        }
+        return messages.isEmpty() ? null : String.join(" ", messages);
+    }
 }
@@ -8,7 +8,8 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import trantantai.trantantai.entities.Book;
 import trantantai.trantantai.services.BookService;
-import trantantai.trantantai.services.CategoryService;
+import trantantai.trantantai.services.HomeFragmentCache;
+import trantantai.trantantai.services.RelatedBooksService;
 
 import java.util.List;
 import java.util.Optional;
@@ -18,20 +19,21 @@ import java.util.Optional;
 public class HomeController {
 
     private final BookService bookService;
-    private final CategoryService categoryService;
+    private final RelatedBooksService relatedBooksService;
+    private final HomeFragmentCache homeFragmentCache;
 
     @Autowired
-    public HomeController(BookService bookService, CategoryService categoryService) {
+    public HomeController(BookService bookService, RelatedBooksService relatedBooksService,
+                          HomeFragmentCache homeFragmentCache) {
         this.bookService = bookService;
-        this.categoryService = categoryService;
+        this.relatedBooksService = relatedBooksService;
+        this.homeFragmentCache = homeFragmentCache;
     }
 
     @GetMapping
     public String home(Model model) {
-        // Get featured books (first 8 books)
-        List<Book> featuredBooks = bookService.getAllBooks(0, 8, "title");
-        model.addAttribute("featuredBooks", featuredBooks);
-        model.addAttribute("categories", categoryService.getAllCategories());
+        // Featured books grid is rendered once per catalog version and served from memory
+        model.addAttribute("featuredBooksHtml", homeFragmentCache.getFeaturedBooksHtml());
         return "home/index";
     }
 
@@ -43,15 +45,8 @@ public class HomeController {
         }
         model.addAttribute("book", bookOpt.get());
 
-        // Get related books (same category, excluding current book)
-        List<Book> allBooks = bookService.getAllBooks(0, 10, "title");
-        Book currentBook = bookOpt.get();
-        List<Book> relatedBooks = allBooks.stream()
-                .filter(b -> !b.getId().equals(id))
-                .filter(b -> currentBook.getCategoryId() != null &&
-                            currentBook.getCategoryId().equals(b.getCategoryId()))
-                .limit(4)
-                .toList();
+        // Get related books (bought together + same category, cached per book)
+        List<Book> relatedBooks = relatedBooksService.getRelatedBooks(bookOpt.get(), 4);
         model.addAttribute("relatedBooks", relatedBooks);
 
         return "book/detail";
@@ -15,6 +15,8 @@ import trantantai.trantantai.services.CategoryService;
 import trantantai.trantantai.services.PdfExportService;
 import trantantai.trantantai.services.PdfExportService.InventoryItemVm;
 import trantantai.trantantai.services.PdfExportService.InventorySummaryVm;
+import trantantai.trantantai.viewmodels.StockAdjustmentResultVm;
+import trantantai.trantantai.viewmodels.StockAdjustmentVm;
 
 import java.text.SimpleDateFormat;
 import java.util.*;
@@ -35,6 +37,7 @@ public class InventoryApiController {
     private final PdfExportService pdfExportService;
 
     private static final SimpleDateFormat FILE_DATE_FORMAT = new SimpleDateFormat("yyyyMMdd_HHmmss");
+    private static final int MAX_ADJUSTMENTS = 5000;
 
     @Autowired
     public InventoryApiController(BookService bookService,
@@ -129,6 +132,33 @@ public class InventoryApiController {
         return ResponseEntity.ok(lowStockItems);
     }
 
+    @Operation(summary = "Bulk stock adjustment",
+               description = "Applies a list of {bookId, delta | absolute} adjustments in one unordered bulk write. " +
+                             "Returns a result per line; lines that would make stock negative are rejected. " +
+                             "A CONFLICT line (stock changed since it was read) was not applied and is safe to retry.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Adjustments processed (see per-item results)"),
+            @ApiResponse(responseCode = "400", description = "Empty or too large request")
+    })
+    @PostMapping("/adjustments")
+    public ResponseEntity<Map<String, Object>> adjustStock(@RequestBody List<StockAdjustmentVm> adjustments) {
+        if (adjustments == null || adjustments.isEmpty() || adjustments.size() > MAX_ADJUSTMENTS) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        List<StockAdjustmentResultVm> results = bookService.adjustStock(adjustments);
+        long applied = results.stream()
+                .filter(r -> StockAdjustmentResultVm.APPLIED.equals(r.status()))
+                .count();
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("requested", results.size());
+        response.put("applied", applied);
+        response.put("failed", results.size() - applied);
+        response.put("results", results);
+        return ResponseEntity.ok(response);
+    }
+
     @Operation(summary = "Export inventory report to PDF", description = "Downloads the inventory report as a PDF file")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "PDF file generated successfully"),
@@ -23,7 +23,10 @@ import trantantai.trantantai.repositories.IBookRepository;
 import trantantai.trantantai.repositories.ICategoryRepository;
 import trantantai.trantantai.repositories.IInvoiceRepository;
 import trantantai.trantantai.repositories.IUserRepository;
+import trantantai.trantantai.services.BookService;
+import trantantai.trantantai.services.CategoryService;
 import trantantai.trantantai.services.ExcelExportService;
+import trantantai.trantantai.services.OrderStatisticsCache;
 import trantantai.trantantai.services.PdfExportService;
 import trantantai.trantantai.services.ReportService;
 import trantantai.trantantai.viewmodels.*;
@@ -48,6 +51,9 @@ public class ReportApiController {
     private final IBookRepository bookRepository;
     private final IUserRepository userRepository;
     private final IInvoiceRepository invoiceRepository;
+    private final OrderStatisticsCache orderStatisticsCache;
+    private final BookService bookService;
+    private final CategoryService categoryService;
 
     private static final SimpleDateFormat FILE_DATE_FORMAT = new SimpleDateFormat("yyyyMMdd");
 
@@ -58,7 +64,10 @@ public class ReportApiController {
                                ICategoryRepository categoryRepository,
                                IBookRepository bookRepository,
                                IUserRepository userRepository,
-                               IInvoiceRepository invoiceRepository) {
+                               IInvoiceRepository invoiceRepository,
+                               OrderStatisticsCache orderStatisticsCache,
+                               BookService bookService,
+                               CategoryService categoryService) {
         this.reportService = reportService;
         this.excelExportService = excelExportService;
         this.pdfExportService = pdfExportService;
@@ -66,6 +75,9 @@ public class ReportApiController {
         this.bookRepository = bookRepository;
         this.userRepository = userRepository;
         this.invoiceRepository = invoiceRepository;
+        this.orderStatisticsCache = orderStatisticsCache;
+        this.bookService = bookService;
+        this.categoryService = categoryService;
     }
 
     @Operation(summary = "Seed mock data for reports", description = "Creates test data for reports testing")
@@ -86,7 +98,9 @@ public class ReportApiController {
                 for (String name : categoryNames) {
                     Category cat = new Category();
                     cat.setName(name);
-                    categories.add(categoryRepository.save(cat));
+                    // Through CategoryService so the category cache and menu see it
+                    categoryService.addCategory(cat);
+                    categories.add(cat);
                 }
             }
 
@@ -116,7 +130,9 @@ public class ReportApiController {
                     if (catIndex < categories.size()) {
                         book.setCategoryId(categories.get(catIndex).getId());
                     }
-                    books.add(bookRepository.save(book));
+                    // Through BookService so version/lastModified are set for incremental exports
+                    bookService.addBook(book);
+                    books.add(book);
                 }
             }
 
@@ -185,6 +201,9 @@ public class ReportApiController {
                 }
             }
 
+            // Seeded invoices bypass the order counters
+            orderStatisticsCache.reconcile();
+
             result.put("success", true);
             result.put("categoriesCount", categoryRepository.count());
             result.put("booksCount", bookRepository.count());
@@ -8,10 +8,12 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import trantantai.trantantai.entities.Review;
 import trantantai.trantantai.entities.User;
 import trantantai.trantantai.services.ReviewService;
@@ -42,7 +44,10 @@ public class ReviewApiController {
      * Get reviews for a book (paginated).
      */
     @Operation(summary = "Get reviews for a book", description = "Retrieves paginated reviews for a specific book, sorted by newest first")
-    @ApiResponse(responseCode = "200", description = "Successfully retrieved reviews")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved reviews"),
+        @ApiResponse(responseCode = "304", description = "Not modified (If-None-Match matched)")
+    })
     @GetMapping("/{bookId}")
     public ResponseEntity<Page<ReviewGetVm>> getReviews(
             @Parameter(description = "Book ID", required = true) 
@@ -50,30 +55,51 @@ public class ReviewApiController {
             @Parameter(description = "Page number (0-indexed)") 
             @RequestParam(defaultValue = "0") int page,
             @Parameter(description = "Page size") 
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            WebRequest request) {
         
+        String eTag = reviewService.getReviewsETag(bookId, "page:" + page + ":" + size);
+        if (request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+
         Page<Review> reviews = reviewService.getReviewsByBookId(bookId, page, size);
         Page<ReviewGetVm> reviewVms = reviews.map(ReviewGetVm::from);
-        return ResponseEntity.ok(reviewVms);
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .cacheControl(CacheControl.noCache())
+                .body(reviewVms);
     }
 
     /**
      * Get review statistics for a book.
      */
     @Operation(summary = "Get review statistics", description = "Retrieves average rating and rating breakdown for a book")
-    @ApiResponse(responseCode = "200", description = "Successfully retrieved statistics")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved statistics"),
+        @ApiResponse(responseCode = "304", description = "Not modified (If-None-Match matched)")
+    })
     @GetMapping("/{bookId}/statistics")
     public ResponseEntity<ReviewStatisticsVm> getStatistics(
             @Parameter(description = "Book ID", required = true) 
-            @PathVariable String bookId) {
+            @PathVariable String bookId,
+            WebRequest request) {
         
+        String eTag = reviewService.getReviewsETag(bookId, "statistics");
+        if (request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+
         ReviewService.ReviewStatistics stats = reviewService.getReviewStatistics(bookId);
         ReviewStatisticsVm statsVm = new ReviewStatisticsVm(
                 stats.getAverageRating(),
                 stats.getTotalCount(),
                 stats.getCountByStar()
         );
-        return ResponseEntity.ok(statsVm);
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .cacheControl(CacheControl.noCache())
+                .body(statsVm);
     }
 
     /**
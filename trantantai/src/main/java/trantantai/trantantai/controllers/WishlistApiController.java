@@ -9,13 +9,14 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
-import trantantai.trantantai.entities.Book;
 import trantantai.trantantai.entities.User;
 import trantantai.trantantai.services.WishlistService;
+import trantantai.trantantai.viewmodels.BookSummaryVm;
 
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 @Tag(name = "Wishlist", description = "Wishlist management APIs - Add, remove, and manage user wishlist")
 @RestController
@@ -34,12 +35,14 @@ public class WishlistApiController {
         @ApiResponse(responseCode = "401", description = "User not authenticated")
     })
     @GetMapping
-    public ResponseEntity<List<Book>> getWishlist(@AuthenticationPrincipal User user) {
+    public ResponseEntity<List<BookSummaryVm>> getWishlist(@AuthenticationPrincipal User user) {
         if (user == null) {
             return ResponseEntity.status(401).build();
         }
 
-        List<Book> books = wishlistService.getWishlistBooks(user.getId());
+        List<BookSummaryVm> books = wishlistService.getWishlistBooks(user.getId()).stream()
+                .map(BookSummaryVm::from)
+                .collect(Collectors.toList());
         return ResponseEntity.ok(books);
     }
 
@@ -1,57 +1,159 @@
 package trantantai.trantantai.daos;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Objects;
+import java.util.Map;
+import java.util.function.Predicate;
 
 public class Cart {
-    private List<Item> cartItems = new ArrayList<>();
+    // Lines keyed by bookId, in the order they were first added
+    private final Map<String, Item> items = new LinkedHashMap<>();
+
+    // Running totals, kept in step with items by every mutator below
+    private int totalQuantity;
+    private double totalPrice;
+
+    // Ordered read-only view, rebuilt lazily after a line is added or removed
+    private List<Item> itemView;
 
     // Default constructor
     public Cart() {
     }
 
     // Getter and Setter
+    // Read-only view in insertion order: change the cart through its methods so the totals stay correct
     public List<Item> getCartItems() {
-        return cartItems;
+        List<Item> view = itemView;
+        if (view == null) {
+            view = Collections.unmodifiableList(new ArrayList<>(items.values()));
+            itemView = view;
+        }
+        return view;
     }
 
     public void setCartItems(List<Item> cartItems) {
-        this.cartItems = cartItems;
+        items.clear();
+        itemView = null;
+        totalQuantity = 0;
+        totalPrice = 0;
+        for (Item item : cartItems) {
+            addItems(item);
+        }
+    }
+
+    public int getTotalQuantity() {
+        return totalQuantity;
+    }
+
+    public double getTotalPrice() {
+        return totalPrice;
+    }
+
+    public boolean isEmpty() {
+        return items.isEmpty();
+    }
+
+    public int size() {
+        return items.size();
+    }
+
+    // Line for a book, or null
+    public Item getItem(String bookId) {
+        return items.get(bookId);
     }
 
     // Add item to cart (increase quantity if exists)
     public void addItems(Item item) {
-        boolean isExist = cartItems.stream()
-                .filter(i -> Objects.equals(i.getBookId(), item.getBookId()))
-                .findFirst()
-                .map(i -> {
-                    i.setQuantity(i.getQuantity() + item.getQuantity());
-                    return true;
-                })
-                .orElse(false);
+        Item existing = items.get(item.getBookId());
+        if (existing != null) {
+            existing.setQuantity(existing.getQuantity() + item.getQuantity());
+        } else {
+            items.put(item.getBookId(), item);
+            itemView = null;
+        }
+        // An existing line keeps its own price, so add at that price
+        Item line = existing != null ? existing : item;
+        totalQuantity += item.getQuantity();
+        totalPrice += unitPrice(line) * item.getQuantity();
+    }
 
-        if (!isExist) {
-            cartItems.add(item);
+    // Add a line or replace the line for the same book, keeping its position
+    public void putItem(Item item) {
+        Item previous = items.put(item.getBookId(), item);
+        if (previous != null) {
+            subtractLine(previous);
         }
+        itemView = null;
+        totalQuantity += item.getQuantity();
+        totalPrice += unitPrice(item) * item.getQuantity();
     }
 
     // Remove item from cart
     public void removeItems(String bookId) {
-        cartItems.removeIf(item -> Objects.equals(item.getBookId(), bookId));
+        Item removed = items.remove(bookId);
+        if (removed != null) {
+            itemView = null;
+            subtractLine(removed);
+            resetTotalsIfEmpty();
+        }
+    }
+
+    // Remove every item matching the filter; returns the number removed
+    public int removeItemsIf(Predicate<Item> filter) {
+        int removed = 0;
+        Iterator<Item> iterator = items.values().iterator();
+        while (iterator.hasNext()) {
+            Item item = iterator.next();
+            if (filter.test(item)) {
+                iterator.remove();
+                subtractLine(item);
+                removed++;
+            }
+        }
+        if (removed > 0) {
+            itemView = null;
+            resetTotalsIfEmpty();
+        }
+        return removed;
     }
 
     // Update item quantity
     public void updateItems(String bookId, int quantity) {
-        cartItems.stream()
-                .filter(item -> Objects.equals(item.getBookId(), bookId))
-                .forEach(item -> item.setQuantity(quantity));
+        Item item = items.get(bookId);
+        if (item != null) {
+            int delta = quantity - item.getQuantity();
+            item.setQuantity(quantity);
+            totalQuantity += delta;
+            totalPrice += unitPrice(item) * delta;
+        }
+    }
+
+    private void subtractLine(Item item) {
+        totalQuantity -= item.getQuantity();
+        totalPrice -= unitPrice(item) * item.getQuantity();
+    }
+
+    // Reset exactly, so rounding drift never outlives an empty cart
+    private void resetTotalsIfEmpty() {
+        if (items.isEmpty()) {
+            totalQuantity = 0;
+            totalPrice = 0;
+        }
+    }
+
+    private static double unitPrice(Item item) {
+        return item.getPrice() != null ? item.getPrice() : 0;
     }
 
     @Override
     public String toString() {
         return "Cart{" +
-                "cartItems=" + cartItems +
+                "cartItems=" + items.values() +
+                ", totalQuantity=" + totalQuantity +
+                ", totalPrice=" + totalPrice +
                 '}';
     }
 }
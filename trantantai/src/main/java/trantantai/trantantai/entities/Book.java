@@ -7,20 +7,31 @@ import jakarta.validation.constraints.Size;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.Transient;
 import org.springframework.data.mongodb.core.mapping.Document;
-import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import trantantai.trantantai.validators.ValidCategoryId;
 
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
 import java.util.Objects;
 
+// Sort indexes for the whitelisted BookSortKey values; each ends in _id (the page tiebreaker).
+// The categoryId-prefixed indexes also serve findByCategoryId / countByCategoryId / deleteByCategoryId.
+// lastModified_id_idx serves incremental catalog exports (?since=).
 @Document(collection = "book")
+@CompoundIndex(name = "title_id_idx", def = "{'title': 1, '_id': 1}")
+@CompoundIndex(name = "author_id_idx", def = "{'author': 1, '_id': 1}")
+@CompoundIndex(name = "price_id_idx", def = "{'price': 1, '_id': 1}")
+@CompoundIndex(name = "quantity_id_idx", def = "{'quantity': 1, '_id': 1}")
+@CompoundIndex(name = "category_id_idx", def = "{'categoryId': 1, '_id': 1}")
+@CompoundIndex(name = "category_title_id_idx", def = "{'categoryId': 1, 'title': 1, '_id': 1}")
+@CompoundIndex(name = "category_price_id_idx", def = "{'categoryId': 1, 'price': 1, '_id': 1}")
+@CompoundIndex(name = "lastModified_id_idx", def = "{'lastModified': 1, '_id': 1}")
 public class Book {
 
     @Id
     private String id;
 
-    @Indexed
     @NotBlank(message = "Title is required")
     @Size(min = 1, max = 50, message = "Title must be between 1 and 50 characters")
     private String title;
@@ -46,6 +57,14 @@ public class Book {
     // Image URLs stored in Cloudinary
     private List<String> imageUrls = new ArrayList<>();
 
+    // Bumped on every write to the book; used as the HTTP ETag validator
+    private Long version;
+
+    private Date lastModified;
+
+    // Bumped whenever a review of this book is added or deleted
+    private Long reviewRevision;
+
     // Default constructor
     public Book() {
     }
@@ -126,6 +145,30 @@ public class Book {
         this.imageUrls = imageUrls != null ? imageUrls : new ArrayList<>();
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public Date getLastModified() {
+        return lastModified;
+    }
+
+    public void setLastModified(Date lastModified) {
+        this.lastModified = lastModified;
+    }
+
+    public Long getReviewRevision() {
+        return reviewRevision;
+    }
+
+    public void setReviewRevision(Long reviewRevision) {
+        this.reviewRevision = reviewRevision;
+    }
+
     @Override
     public String toString() {
         return "Book{" +
@@ -149,6 +192,6 @@ public class Book {
 
     @Override
     public int hashCode() {
-        return getClass().hashCode();
+        return Objects.hash(getId());
     }
 }
@@ -0,0 +1,46 @@
+package trantantai.trantantai.entities;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+/**
+ * DeletedBook - tombstone of a deleted book, so incremental catalog exports (?since=) can tell
+ * consumers such as the search indexer to drop it. Tombstones expire after the retention window
+ * (see DeletedBookLog.RETENTION_DAYS); older since values are rejected by the export.
+ */
+@Document(collection = "deleted_books")
+@CompoundIndex(name = "deletedAt_id_idx", def = "{'deletedAt': 1, '_id': 1}")
+public class DeletedBook {
+
+    // ID of the deleted book
+    @Id
+    private String id;
+
+    @Indexed(name = "deletedAt_ttl", expireAfter = "90d")
+    private Date deletedAt;
+
+    // Default constructor
+    public DeletedBook() {
+    }
+
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public Date getDeletedAt() {
+        return deletedAt;
+    }
+
+    public void setDeletedAt(Date deletedAt) {
+        this.deletedAt = deletedAt;
+    }
+}
@@ -1,6 +1,7 @@
 package trantantai.trantantai.entities;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 import trantantai.trantantai.constants.PaymentStatus;
 import trantantai.trantantai.constants.PaymentMethod;
@@ -16,6 +17,7 @@ import java.util.Objects;
  * ItemInvoices are embedded as a list (not a separate collection).
  */
 @Document(collection = "invoices")
+@CompoundIndex(name = "item_book_idx", def = "{'itemInvoices.bookId': 1}")
 public class Invoice {
 
     @Id
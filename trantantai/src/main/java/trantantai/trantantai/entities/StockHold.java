@@ -0,0 +1,77 @@
+package trantantai.trantantai.entities;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+/**
+ * StockHold - a time-limited soft reservation of copies of a book for one shopper's cart.
+ * Holds count against available stock until they expire; the TTL index on expiresAt
+ * removes expired holds, so abandoned carts release their stock automatically.
+ */
+@Document(collection = "stock_holds")
+@CompoundIndex(name = "holder_book_idx", def = "{'holderId': 1, 'bookId': 1}", unique = true)
+@CompoundIndex(name = "book_expires_idx", def = "{'bookId': 1, 'expiresAt': 1}")
+public class StockHold {
+
+    @Id
+    private String id;
+
+    // Stable per-session token (survives the session ID change at login)
+    private String holderId;
+
+    private String bookId;
+
+    private int quantity;
+
+    @Indexed(name = "expiresAt_ttl", expireAfter = "0s")
+    private Date expiresAt;
+
+    // Default constructor
+    public StockHold() {
+    }
+
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getHolderId() {
+        return holderId;
+    }
+
+    public void setHolderId(String holderId) {
+        this.holderId = holderId;
+    }
+
+    public String getBookId() {
+        return bookId;
+    }
+
+    public void setBookId(String bookId) {
+        this.bookId = bookId;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(int quantity) {
+        this.quantity = quantity;
+    }
+
+    public Date getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(Date expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
@@ -1,6 +1,7 @@
 package trantantai.trantantai.entities;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import trantantai.trantantai.daos.Item;
@@ -14,6 +15,7 @@ import java.util.List;
  * Cart is saved to DB on logout and restored on login.
  */
 @Document(collection = "user_carts")
+@CompoundIndex(name = "cart_items_book_idx", def = "{'cartItems.bookId': 1}")
 public class UserCart {
 
     @Id
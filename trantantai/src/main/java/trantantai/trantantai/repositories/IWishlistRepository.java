@@ -4,6 +4,7 @@ import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 import trantantai.trantantai.entities.Wishlist;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -45,6 +46,12 @@ public interface IWishlistRepository extends MongoRepository<Wishlist, String> {
      */
     void deleteByBookId(String bookId);
 
+    /**
+     * Delete all wishlist entries for several books in one query (category cascade delete)
+     * @return number of entries deleted
+     */
+    long deleteByBookIdIn(Collection<String> bookIds);
+
     /**
      * Count how many users have this book in their wishlist
      */
@@ -0,0 +1,207 @@
+package trantantai.trantantai.services;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+import trantantai.trantantai.entities.Book;
+import trantantai.trantantai.entities.Category;
+import trantantai.trantantai.entities.DeletedBook;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * Service for full-catalog exports.
+ * Books are read from a Mongo cursor in batches of BATCH_SIZE and written straight to the
+ * output stream, so memory use does not depend on catalog size.
+ *
+ * CSV uses the import column layout (imageUrls separated by '|') plus id, categoryName,
+ * version, lastModified and deleted. With {@code since}, books are ordered by lastModified and
+ * interleaved with tombstones of books deleted since then (deleted = true, lastModified = time of
+ * deletion), so the last exported row carries the watermark for the next incremental pull.
+ * Tombstones are kept for {@link DeletedBookLog#RETENTION_DAYS}; older since values are rejected.
+ */
+@Service
+public class BookExportService {
+
+    private static final Logger logger = Logger.getLogger(BookExportService.class.getName());
+
+    public static final String FORMAT_CSV = BookImportService.FORMAT_CSV;
+    public static final String FORMAT_NDJSON = BookImportService.FORMAT_NDJSON;
+
+    private static final int BATCH_SIZE = 500;
+    private static final List<String> CSV_COLUMNS = List.of("id", "title", "author", "price", "quantity",
+            "categoryId", "categoryName", "imageUrls", "version", "lastModified", "deleted");
+
+    private final MongoTemplate mongoTemplate;
+    private final CategoryCache categoryCache;
+    private final DeletedBookLog deletedBookLog;
+
+    @Autowired
+    public BookExportService(MongoTemplate mongoTemplate, CategoryCache categoryCache, DeletedBookLog deletedBookLog) {
+        this.mongoTemplate = mongoTemplate;
+        this.categoryCache = categoryCache;
+        this.deletedBookLog = deletedBookLog;
+    }
+
+    /**
+     * Check an export format before the response is committed.
+     * @throws IllegalArgumentException if the format is not supported
+     */
+    public void validateFormat(String format) {
+        if (!FORMAT_CSV.equalsIgnoreCase(format) && !FORMAT_NDJSON.equalsIgnoreCase(format)) {
+            throw new IllegalArgumentException("Unsupported export format: " + format);
+        }
+    }
+
+    /**
+     * Check an incremental-export watermark before the response is committed.
+     * @throws IllegalArgumentException if deletions since then may no longer be in the log
+     */
+    public void validateSince(Date since) {
+        if (since != null && since.before(deletedBookLog.oldestComplete())) {
+            throw new IllegalArgumentException("since is older than the " + DeletedBookLog.RETENTION_DAYS
+                    + "-day deletion log; run a full export instead");
+        }
+    }
+
+    /**
+     * Write the catalog to a stream.
+     * @param output response stream (not closed)
+     * @param format {@link #FORMAT_CSV} or {@link #FORMAT_NDJSON}
+     * @param since only books modified or deleted at or after this instant; null for the whole catalog
+     * @return number of exported rows (books and tombstones)
+     * @throws IOException if the stream cannot be written
+     */
+    public long exportBooks(OutputStream output, String format, Date since) throws IOException {
+        validateFormat(format);
+        validateSince(since);
+        boolean csv = FORMAT_CSV.equalsIgnoreCase(format);
+
+        Query query;
+        if (since != null) {
+            // Served by lastModified_id_idx
+            query = new Query(Criteria.where("lastModified").gte(since))
+                    .with(Sort.by("lastModified").and(Sort.by("_id")));
+        } else {
+            query = new Query().with(Sort.by("_id"));
+        }
+        query.fields().include("title", "author", "price", "quantity", "categoryId", "imageUrls",
+                "version", "lastModified");
+        query.cursorBatchSize(BATCH_SIZE);
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        if (csv) {
+            writer.write(String.join(",", CSV_COLUMNS));
+            writer.write('\n');
+        }
+
+        long count = 0;
+        long tombstones = 0;
+        try (Stream<Book> books = mongoTemplate.stream(query, Book.class);
+             Stream<DeletedBook> deleted = since != null ? deletedBookLog.streamSince(since, BATCH_SIZE) : Stream.empty()) {
+            Iterator<Book> bookIterator = books.iterator();
+            Iterator<DeletedBook> deletedIterator = deleted.iterator();
+            Book book = bookIterator.hasNext() ? bookIterator.next() : null;
+            DeletedBook tombstone = deletedIterator.hasNext() ? deletedIterator.next() : null;
+            while (book != null || tombstone != null) {
+                // Merge both streams by change time so rows stay in watermark order
+                if (tombstone == null || (book != null && changedAt(book) <= tombstone.getDeletedAt().getTime())) {
+                    writer.write(csv ? toCsvLine(book) : toJson(book).toJson());
+                    book = bookIterator.hasNext() ? bookIterator.next() : null;
+                } else {
+                    writer.write(csv ? toCsvLine(tombstone) : toJson(tombstone).toJson());
+                    tombstone = deletedIterator.hasNext() ? deletedIterator.next() : null;
+                    tombstones++;
+                }
+                writer.write('\n');
+                // Push each batch to the client instead of buffering the whole export
+                if (++count % BATCH_SIZE == 0) {
+                    writer.flush();
+                }
+            }
+        }
+        writer.flush();
+
+        logger.info("Book export finished: " + count + " rows, " + tombstones + " deletions (" + format
+                + (since != null ? ", since " + since.toInstant() : "") + ")");
+        return count;
+    }
+
+    private static long changedAt(Book book) {
+        return book.getLastModified() != null ? book.getLastModified().getTime() : 0;
+    }
+
+    private Document toJson(Book book) {
+        return new Document("id", book.getId())
+                .append("title", book.getTitle())
+                .append("author", book.getAuthor())
+                .append("price", book.getPrice())
+                .append("quantity", book.getQuantity())
+                .append("categoryId", book.getCategoryId())
+                .append("categoryName", categoryName(book.getCategoryId()))
+                .append("imageUrls", book.getImageUrls())
+                .append("version", book.getVersion())
+                .append("lastModified", book.getLastModified() != null ? book.getLastModified().toInstant().toString() : null)
+                .append("deleted", false);
+    }
+
+    private Document toJson(DeletedBook tombstone) {
+        return new Document("id", tombstone.getId())
+                .append("lastModified", tombstone.getDeletedAt().toInstant().toString())
+                .append("deleted", true);
+    }
+
+    private String toCsvLine(Book book) {
+        StringBuilder line = new StringBuilder();
+        line.append(csvField(book.getId())).append(',')
+                .append(csvField(book.getTitle())).append(',')
+                .append(csvField(book.getAuthor())).append(',')
+                .append(book.getPrice() != null ? book.getPrice() : "").append(',')
+                .append(book.getQuantity() != null ? book.getQuantity() : "").append(',')
+                .append(csvField(book.getCategoryId())).append(',')
+                .append(csvField(categoryName(book.getCategoryId()))).append(',')
+                .append(csvField(book.getImageUrls() != null ? String.join("|", book.getImageUrls()) : null)).append(',')
+                .append(book.getVersion() != null ? book.getVersion() : "").append(',')
+                .append(book.getLastModified() != null ? book.getLastModified().toInstant().toString() : "").append(',')
+                .append("false");
+        return line.toString();
+    }
+
+    // Tombstone row: only id, lastModified (time of deletion) and deleted are set
+    private String toCsvLine(DeletedBook tombstone) {
+        return csvField(tombstone.getId()) + ",,,,,,,,," + tombstone.getDeletedAt().toInstant() + ",true";
+    }
+
+    private String categoryName(String categoryId) {
+        if (categoryId == null) {
+            return null;
+        }
+        return categoryCache.get(categoryId).map(Category::getName).orElse(null);
+    }
+
+    // Quote fields containing separators or quotes (RFC 4180); newlines are flattened to spaces
+    private String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        String flat = value.replace('\r', ' ').replace('\n', ' ');
+        if (flat.indexOf(',') >= 0 || flat.indexOf('"') >= 0) {
+            return '"' + flat.replace("\"", "\"\"") + '"';
+        }
+        return flat;
+    }
+}
@@ -0,0 +1,291 @@
+package trantantai.trantantai.services;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+import trantantai.trantantai.entities.Book;
+import trantantai.trantantai.entities.Category;
+import trantantai.trantantai.viewmodels.BookImportResultVm;
+import trantantai.trantantai.viewmodels.BookImportResultVm.RowError;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.logging.Logger;
+
+/**
+ * Service for bulk catalog imports.
+ * Reads CSV or NDJSON line by line (the upload is never fully buffered),
+ * validates each row and inserts valid books in unordered bulk writes of BATCH_SIZE.
+ *
+ * CSV: header row with columns title,author,price,quantity,categoryId,imageUrls
+ * (imageUrls separated by '|'). NDJSON: one JSON object per line with the same fields
+ * (imageUrls as an array).
+ */
+@Service
+public class BookImportService {
+
+    private static final Logger logger = Logger.getLogger(BookImportService.class.getName());
+
+    public static final String FORMAT_CSV = "csv";
+    public static final String FORMAT_NDJSON = "ndjson";
+
+    private static final int BATCH_SIZE = 1000;
+    private static final int MAX_REPORTED_ERRORS = 1000;
+    private static final List<String> CSV_COLUMNS = List.of("title", "author", "price", "quantity", "categoryId", "imageUrls");
+
+    private final BookService bookService;
+    private final MongoTemplate mongoTemplate;
+
+    @Autowired
+    public BookImportService(BookService bookService, MongoTemplate mongoTemplate) {
+        this.bookService = bookService;
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * Import books from a stream.
+     * @param input CSV or NDJSON content (UTF-8)
+     * @param format {@link #FORMAT_CSV} or {@link #FORMAT_NDJSON}
+     * @return per-row import report
+     * @throws IOException if the stream cannot be read
+     * @throws IllegalArgumentException if the format or CSV header is invalid
+     */
+    public BookImportResultVm importBooks(InputStream input, String format) throws IOException {
+        boolean csv = FORMAT_CSV.equalsIgnoreCase(format);
+        if (!csv && !FORMAT_NDJSON.equalsIgnoreCase(format)) {
+            throw new IllegalArgumentException("Unsupported import format: " + format);
+        }
+
+        // Valid category IDs read once from the collection (not the bounded, event-fed cache),
+        // so validation is complete and never queries the database per row
+        Set<String> categoryIds = new HashSet<>();
+        Query categoryQuery = new Query();
+        categoryQuery.fields().include("_id");
+        for (Category category : mongoTemplate.find(categoryQuery, Category.class)) {
+            categoryIds.add(category.getId());
+        }
+
+        ImportState state = new ImportState();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        Map<String, Integer> columns = null;
+        String line;
+        boolean firstLine = true;
+
+        while ((line = reader.readLine()) != null) {
+            if (firstLine && !line.isEmpty() && line.charAt(0) == '\uFEFF') {
+                line = line.substring(1);
+            }
+            if (line.isBlank()) {
+                firstLine = false;
+                continue;
+            }
+            if (csv && columns == null) {
+                columns = parseHeader(line);
+                firstLine = false;
+                continue;
+            }
+            firstLine = false;
+
+            long row = ++state.totalRows;
+            try {
+                Book book = csv ? fromCsv(parseCsvLine(line), columns) : fromJson(Document.parse(line));
+                String error = validate(book, categoryIds);
+                if (error != null) {
+                    state.reject(row, error);
+                    continue;
+                }
+                state.batch.add(book);
+                state.batchRows.add(row);
+            } catch (RuntimeException e) {
+                state.reject(row, "Malformed row: " + e.getMessage());
+            }
+
+            if (state.batch.size() >= BATCH_SIZE) {
+                flush(state);
+            }
+        }
+        flush(state);
+
+        logger.info("Book import finished: " + state.totalRows + " rows, " + state.inserted + " inserted, " + state.failed + " failed");
+        return new BookImportResultVm(state.totalRows, state.inserted, state.failed, state.errors, state.errorsTruncated);
+    }
+
+    private void flush(ImportState state) {
+        if (state.batch.isEmpty()) {
+            return;
+        }
+        Map<Integer, String> failures = bookService.bulkInsertBooks(state.batch);
+        for (Map.Entry<Integer, String> failure : failures.entrySet()) {
+            state.reject(state.batchRows.get(failure.getKey()), failure.getValue());
+        }
+        state.inserted += state.batch.size() - failures.size();
+        state.batch.clear();
+        state.batchRows.clear();
+    }
+
+    private String validate(Book book, Set<String> categoryIds) {
+        if (book.getTitle() == null || book.getTitle().isBlank() || book.getTitle().length() > 50) {
+            return "Title is required and must be between 1 and 50 characters";
+        }
+        if (book.getAuthor() == null || book.getAuthor().isBlank() || book.getAuthor().length() > 50) {
+            return "Author is required and must be between 1 and 50 characters";
+        }
+        if (book.getPrice() == null || book.getPrice() <= 0) {
+            return "Price must be positive";
+        }
+        if (book.getQuantity() == null || book.getQuantity() < 0) {
+            return "Quantity cannot be negative";
+        }
+        if (book.getCategoryId() == null || !categoryIds.contains(book.getCategoryId())) {
+            return "Category not found: " + book.getCategoryId();
+        }
+        return null;
+    }
+
+    private Map<String, Integer> parseHeader(String line) {
+        List<String> names = parseCsvLine(line);
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim(), i);
+        }
+        for (String required : CSV_COLUMNS.subList(0, 5)) {
+            if (!columns.containsKey(required)) {
+                throw new IllegalArgumentException("CSV header is missing column: " + required);
+            }
+        }
+        return columns;
+    }
+
+    private Book fromCsv(List<String> values, Map<String, Integer> columns) {
+        Book book = new Book();
+        book.setTitle(trimToNull(column(values, columns, "title")));
+        book.setAuthor(trimToNull(column(values, columns, "author")));
+        String price = trimToNull(column(values, columns, "price"));
+        book.setPrice(price != null ? Double.valueOf(price) : null);
+        String quantity = trimToNull(column(values, columns, "quantity"));
+        book.setQuantity(quantity != null ? Integer.valueOf(quantity) : 0);
+        book.setCategoryId(trimToNull(column(values, columns, "categoryId")));
+
+        List<String> imageUrls = new ArrayList<>();
+        String images = column(values, columns, "imageUrls");
+        if (images != null) {
+            for (String url : images.split("\\|")) {
+                if (!url.isBlank()) {
+                    imageUrls.add(url.trim());
+                }
+            }
+        }
+        book.setImageUrls(imageUrls);
+        return book;
+    }
+
+    private Book fromJson(Document doc) {
+        Book book = new Book();
+        book.setTitle(trimToNull(doc.getString("title")));
+        book.setAuthor(trimToNull(doc.getString("author")));
+        Number price = number(doc, "price");
+        book.setPrice(price != null ? price.doubleValue() : null);
+        Integer quantity = integer(doc, "quantity");
+        book.setQuantity(quantity != null ? quantity : 0);
+        book.setCategoryId(trimToNull(doc.getString("categoryId")));
+        List<String> imageUrls = doc.getList("imageUrls", String.class);
+        book.setImageUrls(imageUrls != null ? new ArrayList<>(imageUrls) : new ArrayList<>());
+        return book;
+    }
+
+    // Missing field -> null; anything but a JSON number is a parse error, not a range error
+    private Number number(Document doc, String field) {
+        Object value = doc.get(field);
+        if (value == null || value instanceof Number) {
+            return (Number) value;
+        }
+        throw new IllegalArgumentException(field + " is not a number: " + value);
+    }
+
+    // As number(), but the value must also be a whole number within int range (2.7 or 1e12 are rejected)
+    private Integer integer(Document doc, String field) {
+        Number value = number(doc, field);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return new BigDecimal(value.toString()).intValueExact();
+        } catch (ArithmeticException | NumberFormatException e) {
+            throw new IllegalArgumentException(field + " is not a whole number in range: " + value);
+        }
+    }
+
+    private String column(List<String> values, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        return index != null && index < values.size() ? values.get(index) : null;
+    }
+
+    private String trimToNull(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    // Minimal RFC 4180 line parser: quoted fields, "" escapes, no embedded newlines
+    private List<String> parseCsvLine(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        current.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("unterminated quoted field");
+        }
+        values.add(current.toString());
+        return values;
+    }
+
+    // Mutable counters and the pending batch of one import run
+    private static class ImportState {
+        private final List<Book> batch = new ArrayList<>(BATCH_SIZE);
+        private final List<Long> batchRows = new ArrayList<>(BATCH_SIZE);
+        private final List<RowError> errors = new ArrayList<>();
+        private long totalRows;
+        private long inserted;
+        private long failed;
+        private boolean errorsTruncated;
+
+        private void reject(long row, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new RowError(row, message));
+            } else {
+                errorsTruncated = true;
+            }
+        }
+    }
+}
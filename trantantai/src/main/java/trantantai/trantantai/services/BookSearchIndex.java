@@ -0,0 +1,311 @@
+package trantantai.trantantai.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import trantantai.trantantai.entities.Book;
+import trantantai.trantantai.entities.Category;
+import trantantai.trantantai.repositories.IBookRepository;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * In-memory inverted index over book title, author and category name.
+ * Built once at startup and updated incrementally by CatalogCacheInvalidator,
+ * so searching never scans the book collection.
+ *
+ * Query tokens are matched as prefixes of indexed tokens after diacritic folding,
+ * every query token must match, and results are ranked by field weight.
+ */
+@Component
+public class BookSearchIndex {
+
+    private static final Logger logger = Logger.getLogger(BookSearchIndex.class.getName());
+
+    private static final int TITLE_WEIGHT = 3;
+    private static final int AUTHOR_WEIGHT = 2;
+    private static final int CATEGORY_WEIGHT = 1;
+    private static final int EXACT_TOKEN_BONUS = 1;
+    private static final int TITLE_PHRASE_BONUS = 5;
+
+    private final IBookRepository bookRepository;
+    private final CategoryCache categoryCache;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // token -> (bookId -> field weight)
+    private final NavigableMap<String, Map<String, Integer>> bookPostings = new TreeMap<>();
+    // token -> categoryIds whose name contains the token
+    private final NavigableMap<String, Set<String>> categoryPostings = new TreeMap<>();
+    private final Map<String, IndexedBook> books = new HashMap<>();
+    private final Map<String, List<String>> categoryTokens = new HashMap<>();
+    private final Map<String, Set<String>> booksByCategory = new HashMap<>();
+
+    private volatile boolean ready = false;
+
+    @Autowired
+    public BookSearchIndex(IBookRepository bookRepository, CategoryCache categoryCache) {
+        this.bookRepository = bookRepository;
+        this.categoryCache = categoryCache;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            logger.log(Level.WARNING, "Could not build book search index, falling back to database search", e);
+        }
+    }
+
+    /**
+     * Rebuild the whole index from the database.
+     */
+    public void rebuild() {
+        List<Book> allBooks = bookRepository.findAll();
+        List<Category> allCategories = categoryCache.getAll();
+
+        lock.writeLock().lock();
+        try {
+            bookPostings.clear();
+            categoryPostings.clear();
+            books.clear();
+            categoryTokens.clear();
+            booksByCategory.clear();
+            for (Category category : allCategories) {
+                indexCategory(category);
+            }
+            for (Book book : allBooks) {
+                indexBook(book);
+            }
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Built book search index: " + allBooks.size() + " books, " + allCategories.size() + " categories");
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Add or re-index a book after it was saved.
+     */
+    public void onBookSaved(Book book) {
+        if (book == null || book.getId() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            unindexBook(book.getId());
+            indexBook(book);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove books after they were deleted.
+     */
+    public void onBooksDeleted(Collection<String> bookIds) {
+        lock.writeLock().lock();
+        try {
+            for (String bookId : bookIds) {
+                unindexBook(bookId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Add or re-index a category name after it was saved.
+     */
+    public void onCategorySaved(Category category) {
+        if (category == null || category.getId() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            unindexCategory(category.getId());
+            indexCategory(category);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove a category name after it was deleted.
+     */
+    public void onCategoryDeleted(String categoryId) {
+        lock.writeLock().lock();
+        try {
+            unindexCategory(categoryId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Search the index.
+     * @param keyword free-text query
+     * @return matching book IDs, best match first
+     */
+    public List<String> search(String keyword) {
+        List<String> queryTokens = TextNormalizer.tokenize(keyword);
+        if (queryTokens.isEmpty()) {
+            return Collections.emptyList();
+        }
+        String foldedPhrase = TextNormalizer.fold(keyword);
+
+        lock.readLock().lock();
+        try {
+            Map<String, Integer> scores = null;
+            for (String queryToken : queryTokens) {
+                Map<String, Integer> tokenScores = scoreToken(queryToken);
+                if (scores == null) {
+                    scores = tokenScores;
+                } else {
+                    // Every query token must match: keep the intersection
+                    Map<String, Integer> intersection = new HashMap<>();
+                    for (Map.Entry<String, Integer> entry : scores.entrySet()) {
+                        Integer score = tokenScores.get(entry.getKey());
+                        if (score != null) {
+                            intersection.put(entry.getKey(), entry.getValue() + score);
+                        }
+                    }
+                    scores = intersection;
+                }
+                if (scores.isEmpty()) {
+                    return Collections.emptyList();
+                }
+            }
+
+            List<ScoredBook> ranked = new ArrayList<>(scores.size());
+            for (Map.Entry<String, Integer> entry : scores.entrySet()) {
+                IndexedBook indexed = books.get(entry.getKey());
+                int score = entry.getValue();
+                if (indexed.foldedTitle.contains(foldedPhrase)) {
+                    score += TITLE_PHRASE_BONUS;
+                }
+                ranked.add(new ScoredBook(entry.getKey(), indexed.foldedTitle, score));
+            }
+            ranked.sort(Comparator.comparingInt(ScoredBook::score).reversed()
+                    .thenComparing(ScoredBook::foldedTitle)
+                    .thenComparing(ScoredBook::id));
+
+            List<String> ids = new ArrayList<>(ranked.size());
+            for (ScoredBook scoredBook : ranked) {
+                ids.add(scoredBook.id());
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Best score per book for a single query token, matched as a prefix of indexed tokens
+    private Map<String, Integer> scoreToken(String queryToken) {
+        Map<String, Integer> scores = new HashMap<>();
+        String upperBound = queryToken + Character.MAX_VALUE;
+
+        for (Map.Entry<String, Map<String, Integer>> entry
+                : bookPostings.subMap(queryToken, true, upperBound, false).entrySet()) {
+            int bonus = entry.getKey().equals(queryToken) ? EXACT_TOKEN_BONUS : 0;
+            for (Map.Entry<String, Integer> posting : entry.getValue().entrySet()) {
+                scores.merge(posting.getKey(), posting.getValue() + bonus, Math::max);
+            }
+        }
+
+        for (Map.Entry<String, Set<String>> entry
+                : categoryPostings.subMap(queryToken, true, upperBound, false).entrySet()) {
+            int bonus = entry.getKey().equals(queryToken) ? EXACT_TOKEN_BONUS : 0;
+            for (String categoryId : entry.getValue()) {
+                for (String bookId : booksByCategory.getOrDefault(categoryId, Collections.emptySet())) {
+                    scores.merge(bookId, CATEGORY_WEIGHT + bonus, Math::max);
+                }
+            }
+        }
+        return scores;
+    }
+
+    private void indexBook(Book book) {
+        Map<String, Integer> tokenWeights = new HashMap<>();
+        for (String token : TextNormalizer.tokenize(book.getTitle())) {
+            tokenWeights.merge(token, TITLE_WEIGHT, Math::max);
+        }
+        for (String token : TextNormalizer.tokenize(book.getAuthor())) {
+            tokenWeights.merge(token, AUTHOR_WEIGHT, Math::max);
+        }
+        for (Map.Entry<String, Integer> entry : tokenWeights.entrySet()) {
+            bookPostings.computeIfAbsent(entry.getKey(), k -> new HashMap<>())
+                    .put(book.getId(), entry.getValue());
+        }
+        books.put(book.getId(), new IndexedBook(TextNormalizer.fold(book.getTitle()),
+                book.getCategoryId(), new ArrayList<>(tokenWeights.keySet())));
+        if (book.getCategoryId() != null) {
+            booksByCategory.computeIfAbsent(book.getCategoryId(), k -> new HashSet<>()).add(book.getId());
+        }
+    }
+
+    private void unindexBook(String bookId) {
+        IndexedBook indexed = books.remove(bookId);
+        if (indexed == null) {
+            return;
+        }
+        for (String token : indexed.tokens) {
+            Map<String, Integer> postings = bookPostings.get(token);
+            if (postings != null) {
+                postings.remove(bookId);
+                if (postings.isEmpty()) {
+                    bookPostings.remove(token);
+                }
+            }
+        }
+        if (indexed.categoryId != null) {
+            Set<String> categoryBooks = booksByCategory.get(indexed.categoryId);
+            if (categoryBooks != null) {
+                categoryBooks.remove(bookId);
+                if (categoryBooks.isEmpty()) {
+                    booksByCategory.remove(indexed.categoryId);
+                }
+            }
+        }
+    }
+
+    private void indexCategory(Category category) {
+        List<String> tokens = new ArrayList<>(new LinkedHashSet<>(TextNormalizer.tokenize(category.getName())));
+        for (String token : tokens) {
+            categoryPostings.computeIfAbsent(token, k -> new HashSet<>()).add(category.getId());
+        }
+        categoryTokens.put(category.getId(), tokens);
+    }
+
+    private void unindexCategory(String categoryId) {
+        List<String> tokens = categoryTokens.remove(categoryId);
+        if (tokens == null) {
+            return;
+        }
+        for (String token : tokens) {
+            Set<String> categoryIds = categoryPostings.get(token);
+            if (categoryIds != null) {
+                categoryIds.remove(categoryId);
+                if (categoryIds.isEmpty()) {
+                    categoryPostings.remove(token);
+                }
+            }
+        }
+    }
+
+    private record IndexedBook(String foldedTitle, String categoryId, List<String> tokens) {
+    }
+
+    private record ScoredBook(String id, String foldedTitle, int score) {
+    }
+}
@@ -1,47 +1,84 @@
 package trantantai.trantantai.services;
 
+import com.mongodb.bulk.BulkWriteError;
 import com.mongodb.client.result.UpdateResult;
 import jakarta.validation.constraints.NotNull;
+import org.bson.Document;
+import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.aggregation.FacetOperation;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
 import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
+import trantantai.trantantai.constants.BookSortKey;
 import trantantai.trantantai.entities.Book;
 import trantantai.trantantai.entities.Category;
 import trantantai.trantantai.repositories.IBookRepository;
 import trantantai.trantantai.repositories.ICategoryRepository;
 import trantantai.trantantai.repositories.IWishlistRepository;
+import trantantai.trantantai.viewmodels.BookSuggestionVm;
+import trantantai.trantantai.viewmodels.StockAdjustmentResultVm;
+import trantantai.trantantai.viewmodels.StockAdjustmentVm;
 
+import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
 @Service
 public class BookService {
 
+    private static final Logger logger = Logger.getLogger(BookService.class.getName());
+
+    // Per-order hold markers written by reserveStock: stockHolds.<reservationId> = quantity
+    private static final String STOCK_HOLDS_FIELD = "stockHolds";
+    // Per-request markers written by adjustStock: stockAdjustments.<adjustmentId> = true
+    private static final String STOCK_ADJUSTMENTS_FIELD = "stockAdjustments";
+
     private final IBookRepository bookRepository;
     private final ICategoryRepository categoryRepository;
     private final MongoTemplate mongoTemplate;
     private final UserCartService userCartService;
     private final IWishlistRepository wishlistRepository;
+    private final CategoryCache categoryCache;
+    private final BookSearchIndex bookSearchIndex;
+    private final BookSuggestIndex bookSuggestIndex;
+    private final CacheInvalidationBus cacheInvalidationBus;
+    private final DeletedBookLog deletedBookLog;
 
     @Autowired
     public BookService(IBookRepository bookRepository, ICategoryRepository categoryRepository,
                        MongoTemplate mongoTemplate, UserCartService userCartService,
-                       IWishlistRepository wishlistRepository) {
+                       IWishlistRepository wishlistRepository, CategoryCache categoryCache,
+                       BookSearchIndex bookSearchIndex, BookSuggestIndex bookSuggestIndex,
+                       CacheInvalidationBus cacheInvalidationBus, DeletedBookLog deletedBookLog) {
         this.bookRepository = bookRepository;
         this.categoryRepository = categoryRepository;
         this.mongoTemplate = mongoTemplate;
         this.userCartService = userCartService;
         this.wishlistRepository = wishlistRepository;
+        this.categoryCache = categoryCache;
+        this.bookSearchIndex = bookSearchIndex;
+        this.bookSuggestIndex = bookSuggestIndex;
+        this.cacheInvalidationBus = cacheInvalidationBus;
+        this.deletedBookLog = deletedBookLog;
     }
 
     public List<Book> getAllBooks(Integer pageNo, Integer pageSize, String sortBy) {
-        PageRequest pageRequest = PageRequest.of(pageNo, pageSize, Sort.by(sortBy));
+        PageRequest pageRequest = PageRequest.of(pageNo, pageSize, BookSortKey.parseOrDefault(sortBy).toSort());
         Page<Book> pagedResult = bookRepository.findAll(pageRequest);
         
         List<Book> books = pagedResult.getContent();
@@ -51,12 +88,271 @@ public class BookService {
         return books;
     }
 
+    /**
+     * Get a page of books with their Category already joined, in a single aggregation
+     * (match/sort/skip/limit + $lookup on category) instead of a find followed by per-book lookups.
+     * @param categoryId optional category filter (null or empty for all books)
+     * @param pageNo page number (0-based)
+     * @param pageSize page size
+     * @param sortBy sort key (see {@link BookSortKey}; unknown keys fall back to id)
+     */
+    public List<Book> getBooksWithCategory(String categoryId, Integer pageNo, Integer pageSize, String sortBy) {
+        List<AggregationOperation> stages = new ArrayList<>();
+        if (categoryId != null && !categoryId.isEmpty()) {
+            stages.add(Aggregation.match(Criteria.where("categoryId").is(categoryId)));
+        }
+
+        // Whitelisted key with _id as tiebreaker for a stable page order
+        stages.add(Aggregation.sort(BookSortKey.parseOrDefault(sortBy).toSort()));
+        stages.add(Aggregation.skip((long) pageNo * pageSize));
+        stages.add(Aggregation.limit(pageSize));
+
+        // categoryId is stored as a string while category._id is an ObjectId
+        stages.add(context -> new Document("$addFields", new Document("categoryObjectId",
+                new Document("$convert", new Document("input", "$categoryId")
+                        .append("to", "objectId")
+                        .append("onError", "$categoryId")
+                        .append("onNull", null)))));
+        stages.add(context -> new Document("$lookup", new Document("from", "category")
+                .append("localField", "categoryObjectId")
+                .append("foreignField", "_id")
+                .append("as", "categoryDocs")));
+
+        AggregationResults<Document> results = mongoTemplate.aggregate(
+                Aggregation.newAggregation(stages), "book", Document.class);
+
+        List<Book> books = new ArrayList<>();
+        for (Document doc : results.getMappedResults()) {
+            Book book = mongoTemplate.getConverter().read(Book.class, doc);
+            List<Document> categoryDocs = doc.getList("categoryDocs", Document.class);
+            if (categoryDocs != null && !categoryDocs.isEmpty()) {
+                book.setCategory(mongoTemplate.getConverter().read(Category.class, categoryDocs.get(0)));
+            }
+            books.add(book);
+        }
+        return books;
+    }
+
+    /**
+     * Upper bounds (VND) of the price facet buckets; the last bucket is open-ended.
+     */
+    public static final List<Integer> PRICE_BUCKET_BOUNDARIES = List.of(0, 50_000, 100_000, 200_000, 500_000);
+
+    /**
+     * Browse the catalog with facets: the page of books (as summaries), the total, price-bucket counts
+     * and in-stock / out-of-stock counts for the filter, from one $facet aggregation.
+     * The price and stock filters are applied in the leading $match. Category counts ignore the
+     * category filter (so the category menu can show sibling counts), so the category filter is
+     * applied inside each of the other facet branches instead. Without a category filter the sort
+     * follows the leading $match (index order); with one, the results branch sorts the category's
+     * books itself. Books without a non-negative price are left out of the price buckets.
+     * @param categoryId optional category filter
+     * @param minPrice optional minimum price (inclusive)
+     * @param maxPrice optional maximum price (exclusive)
+     * @param inStock optional stock filter (true = quantity > 0, false = out of stock)
+     * @param pageNo page number (0-based)
+     * @param pageSize page size
+     * @param sortBy sort key (see {@link BookSortKey}; unknown keys fall back to id)
+     */
+    public BrowseResult browseBooks(String categoryId, Double minPrice, Double maxPrice, Boolean inStock,
+                                    Integer pageNo, Integer pageSize, String sortBy) {
+        List<Criteria> shared = new ArrayList<>();
+        if (minPrice != null || maxPrice != null) {
+            Criteria price = Criteria.where("price");
+            if (minPrice != null) {
+                price = price.gte(minPrice);
+            }
+            if (maxPrice != null) {
+                price = price.lt(maxPrice);
+            }
+            shared.add(price);
+        }
+        if (inStock != null) {
+            shared.add(inStock ? Criteria.where("quantity").gt(0)
+                    : new Criteria().orOperator(Criteria.where("quantity").lte(0), Criteria.where("quantity").is(null)));
+        }
+        boolean hasCategory = categoryId != null && !categoryId.isEmpty();
+
+        Sort sort = BookSortKey.parseOrDefault(sortBy).toSort();
+
+        // Category filter, applied inside every branch except the category counts
+        List<AggregationOperation> inCategory = hasCategory
+                ? List.of(Aggregation.match(Criteria.where("categoryId").is(categoryId)))
+                : List.of();
+        // Only the results branch is sorted; without a category the sort precedes the $facet
+        List<AggregationOperation> sortedInCategory = hasCategory
+                ? List.of(inCategory.get(0), Aggregation.sort(sort))
+                : List.of();
+
+        FacetOperation facet = Aggregation.facet(branch(sortedInCategory,
+                        Aggregation.skip((long) pageNo * pageSize),
+                        Aggregation.limit(pageSize),
+                        summaryProjection())).as("results")
+                .and(branch(inCategory, Aggregation.count().as("count"))).as("total")
+                .and(branch(inCategory,
+                        Aggregation.match(Criteria.where("price").gte(0)),
+                        Aggregation.bucket("price")
+                                .withBoundaries(PRICE_BUCKET_BOUNDARIES.toArray())
+                                .withDefaultBucket("other")
+                                .andOutputCount().as("count"))).as("prices")
+                .and(branch(inCategory, Aggregation.group()
+                        .sum(ConditionalOperators.when(Criteria.where("quantity").gt(0)).then(1).otherwise(0)).as("inStock")
+                        .count().as("count"))).as("stock")
+                .and(Aggregation.group("categoryId").count().as("count")).as("categories");
+
+        // Leading $match (+ $sort without a category) can be served by the (sort key, _id) indexes
+        List<AggregationOperation> stages = new ArrayList<>();
+        if (!shared.isEmpty()) {
+            stages.add(Aggregation.match(shared.size() == 1 ? shared.get(0) : new Criteria().andOperator(shared)));
+        }
+        if (!hasCategory) {
+            stages.add(Aggregation.sort(sort));
+        }
+        stages.add(facet);
+
+        Document doc = mongoTemplate.aggregate(Aggregation.newAggregation(stages), "book", Document.class)
+                .getUniqueMappedResult();
+        if (doc == null) {
+            return new BrowseResult(Collections.emptyList(), 0, Collections.emptyMap(), Collections.emptyList(), 0, 0);
+        }
+
+        List<Book> books = new ArrayList<>();
+        for (Document result : doc.getList("results", Document.class)) {
+            Book book = mongoTemplate.getConverter().read(Book.class, result);
+            populateCategory(book);
+            books.add(book);
+        }
+
+        List<Document> totalDocs = doc.getList("total", Document.class);
+        long total = totalDocs.isEmpty() ? 0 : ((Number) totalDocs.get(0).get("count")).longValue();
+
+        Map<String, Long> categoryCounts = new LinkedHashMap<>();
+        for (Document category : doc.getList("categories", Document.class)) {
+            Object id = category.get("_id");
+            if (id != null) {
+                categoryCounts.put(id.toString(), ((Number) category.get("count")).longValue());
+            }
+        }
+
+        Map<Object, Long> bucketCounts = new HashMap<>();
+        for (Document bucket : doc.getList("prices", Document.class)) {
+            bucketCounts.put(bucket.get("_id") instanceof Number n ? n.intValue() : bucket.get("_id"),
+                    ((Number) bucket.get("count")).longValue());
+        }
+        List<PriceBucket> priceBuckets = new ArrayList<>();
+        for (int i = 0; i < PRICE_BUCKET_BOUNDARIES.size() - 1; i++) {
+            Integer lower = PRICE_BUCKET_BOUNDARIES.get(i);
+            priceBuckets.add(new PriceBucket(lower, PRICE_BUCKET_BOUNDARIES.get(i + 1), bucketCounts.getOrDefault(lower, 0L)));
+        }
+        priceBuckets.add(new PriceBucket(PRICE_BUCKET_BOUNDARIES.get(PRICE_BUCKET_BOUNDARIES.size() - 1), null,
+                bucketCounts.getOrDefault("other", 0L)));
+
+        List<Document> stockDocs = doc.getList("stock", Document.class);
+        long inStockCount = 0;
+        long stockTotal = 0;
+        if (!stockDocs.isEmpty()) {
+            inStockCount = ((Number) stockDocs.get(0).get("inStock")).longValue();
+            stockTotal = ((Number) stockDocs.get(0).get("count")).longValue();
+        }
+
+        return new BrowseResult(books, total, categoryCounts, priceBuckets, inStockCount, stockTotal - inStockCount);
+    }
+
+
+    // Facet sub-pipeline: the prefix stages followed by the branch's own stages
+    private static AggregationOperation[] branch(List<AggregationOperation> prefix, AggregationOperation... operations) {
+        List<AggregationOperation> stages = new ArrayList<>(prefix);
+        stages.addAll(Arrays.asList(operations));
+        return stages.toArray(new AggregationOperation[0]);
+    }
+
+    /**
+     * Get the next page of books using keyset (cursor) pagination.
+     * Seeks past the last (sortKey, _id) pair instead of skipping documents, and runs no count query.
+     * @param after opaque cursor returned by the previous page, or null for the first page
+     * @param limit maximum number of books to return
+     * @param sortBy sort key (see {@link BookSortKey}); ignored when a cursor is given
+     * @return the page and the cursor of the next page (null on the last page)
+     * @throws IllegalArgumentException if the sort key or cursor is invalid
+     */
+    public CursorPage getBooksAfter(String after, int limit, String sortBy) {
+        String sortKey = sortBy;
+        Object lastValue = null;
+        String lastId = null;
+
+        if (after != null && !after.isEmpty()) {
+            Document cursor = decodeCursor(after);
+            sortKey = cursor.getString("s");
+            lastValue = cursor.get("v");
+            lastId = cursor.getString("id");
+        }
+        BookSortKey key = BookSortKey.parse(sortKey);
+        String sortField = key.getField();
+        Query query = new Query();
+        if (lastId != null) {
+            Object lastObjectId = ObjectId.isValid(lastId) ? new ObjectId(lastId) : lastId;
+            if ("_id".equals(sortField)) {
+                query.addCriteria(Criteria.where("_id").gt(lastObjectId));
+            } else if (lastValue != null) {
+                query.addCriteria(new Criteria().orOperator(
+                        Criteria.where(sortField).gt(lastValue),
+                        new Criteria().andOperator(
+                                Criteria.where(sortField).is(lastValue),
+                                Criteria.where("_id").gt(lastObjectId))));
+            } else {
+                // Nulls sort first: finish the null run, then everything non-null
+                query.addCriteria(new Criteria().orOperator(
+                        new Criteria().andOperator(
+                                Criteria.where(sortField).is(null),
+                                Criteria.where("_id").gt(lastObjectId)),
+                        Criteria.where(sortField).ne(null)));
+            }
+        }
+
+        query.with(key.toSort()).limit(limit + 1);
+
+        List<Book> books = mongoTemplate.find(query, Book.class);
+        String nextCursor = null;
+        if (books.size() > limit) {
+            books = new ArrayList<>(books.subList(0, limit));
+            nextCursor = encodeCursor(key, books.get(books.size() - 1));
+        }
+        books.forEach(this::populateCategory);
+        return new CursorPage(books, nextCursor);
+    }
+
+    private String encodeCursor(BookSortKey key, Book last) {
+        Object value = switch (key) {
+            case TITLE -> last.getTitle();
+            case AUTHOR -> last.getAuthor();
+            case PRICE -> last.getPrice();
+            case QUANTITY -> last.getQuantity();
+            case ID -> null;
+        };
+        Document cursor = new Document("s", key.getParam()).append("v", value).append("id", last.getId());
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(cursor.toJson().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Document decodeCursor(String cursor) {
+        try {
+            String json = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            Document decoded = Document.parse(json);
+            if (decoded.getString("s") == null || decoded.getString("id") == null) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return decoded;
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
     public long getTotalBooks() {
         return bookRepository.count();
     }
 
     public List<Book> getBooksByCategory(String categoryId, Integer pageNo, Integer pageSize, String sortBy) {
-        PageRequest pageRequest = PageRequest.of(pageNo, pageSize, Sort.by(sortBy));
+        PageRequest pageRequest = PageRequest.of(pageNo, pageSize, BookSortKey.parseOrDefault(sortBy).toSort());
         List<Book> books = bookRepository.findByCategoryId(categoryId, pageRequest);
         books.forEach(this::populateCategory);
         return books;
@@ -95,20 +391,119 @@ public class BookService {
         return bookMap;
     }
 
+    /**
+     * Load book summaries by IDs in one query, reading only the fields a listing card needs
+     * (see {@link #summaryQuery}). The returned books are partial and must not be saved.
+     */
+    public Map<String, Book> getBookSummariesByIds(Collection<String> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<String, Book> bookMap = new HashMap<>();
+        for (Book book : mongoTemplate.find(summaryQuery(Criteria.where("_id").in(ids)), Book.class)) {
+            populateCategory(book);
+            bookMap.put(book.getId(), book);
+        }
+        return bookMap;
+    }
+
+    /**
+     * Get current stock and price for many books with one $in query projecting only _id, quantity, price
+     * and title (the name of new cart lines). Books that no longer exist are absent from the map.
+     */
+    public Map<String, Book> getStockAndPrices(Collection<String> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Query query = new Query(Criteria.where("_id").in(ids));
+        query.fields().include("quantity").include("price").include("title");
+        Map<String, Book> bookMap = new HashMap<>();
+        for (Book book : mongoTemplate.find(query, Book.class)) {
+            bookMap.put(book.getId(), book);
+        }
+        return bookMap;
+    }
+
+    /**
+     * Query projected to the listing-card fields: id, title, author, price, quantity, categoryId
+     * and only the first image URL.
+     */
+    public static Query summaryQuery(Criteria criteria) {
+        Query query = new Query(criteria);
+        query.fields()
+                .include("title")
+                .include("author")
+                .include("price")
+                .include("quantity")
+                .include("categoryId")
+                .slice("imageUrls", 1);
+        return query;
+    }
+
     public void addBook(Book book) {
+        touch(book);
         bookRepository.save(book);
+        cacheInvalidationBus.publish(CacheInvalidationEvent.booksSaved(List.of(book.getId())));
     }
 
+    /**
+     * Insert many books with one unordered bulk write and publish one invalidation for the batch.
+     * IDs are assigned before the write so failed rows can be told apart from inserted ones.
+     * @param books books to insert
+     * @return index (within {@code books}) -> error message for every book that was not inserted
+     */
+    public Map<Integer, String> bulkInsertBooks(List<Book> books) {
+        if (books.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        for (Book book : books) {
+            if (book.getId() == null) {
+                book.setId(new ObjectId().toHexString());
+            }
+            touch(book);
+        }
+
+        Map<Integer, String> failures = new HashMap<>();
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Book.class)
+                    .insert(books)
+                    .execute();
+        } catch (BulkOperationException e) {
+            for (BulkWriteError error : e.getErrors()) {
+                failures.put(error.getIndex(), error.getMessage());
+            }
+        }
+
+        List<String> insertedIds = new ArrayList<>(books.size() - failures.size());
+        for (int i = 0; i < books.size(); i++) {
+            if (!failures.containsKey(i)) {
+                insertedIds.add(books.get(i).getId());
+            }
+        }
+        if (!insertedIds.isEmpty()) {
+            cacheInvalidationBus.publish(CacheInvalidationEvent.booksSaved(insertedIds));
+        }
+        return failures;
+    }
+
+    /**
+     * Update the editable fields of a book with one targeted $set.
+     * Fields maintained elsewhere (reviewRevision, stockHolds markers of in-flight reservations)
+     * are never written here, so concurrent updates to them are not lost.
+     */
     public void updateBook(@NotNull Book book) {
-        Book existingBook = bookRepository.findById(book.getId())
-                .orElseThrow(() -> new RuntimeException("Book not found"));
-        existingBook.setTitle(book.getTitle());
-        existingBook.setAuthor(book.getAuthor());
-        existingBook.setPrice(book.getPrice());
-        existingBook.setCategoryId(book.getCategoryId());
-        existingBook.setQuantity(book.getQuantity());
-        existingBook.setImageUrls(book.getImageUrls());
-        bookRepository.save(existingBook);
+        Update update = touch(new Update()
+                .set("title", book.getTitle())
+                .set("author", book.getAuthor())
+                .set("price", book.getPrice())
+                .set("categoryId", book.getCategoryId())
+                .set("quantity", book.getQuantity())
+                .set("imageUrls", book.getImageUrls()));
+        UpdateResult result = mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(book.getId())), update, Book.class);
+        if (result.getMatchedCount() == 0) {
+            throw new RuntimeException("Book not found");
+        }
+        cacheInvalidationBus.publish(CacheInvalidationEvent.booksSaved(List.of(book.getId())));
     }
 
     public void deleteBookById(String id) {
@@ -118,6 +513,8 @@ public class BookService {
         wishlistRepository.deleteByBookId(id);
         // Then delete the book
         bookRepository.deleteById(id);
+        deletedBookLog.record(List.of(id));
+        cacheInvalidationBus.publish(CacheInvalidationEvent.booksDeleted(List.of(id)));
     }
 
     /**
@@ -128,7 +525,7 @@ public class BookService {
      */
     public boolean decrementStock(String bookId, int quantity) {
         Query query = new Query(Criteria.where("_id").is(bookId).and("quantity").gte(quantity));
-        Update update = new Update().inc("quantity", -quantity);
+        Update update = touch(new Update().inc("quantity", -quantity));
         UpdateResult result = mongoTemplate.updateFirst(query, update, Book.class);
         return result.getModifiedCount() > 0;
     }
@@ -141,11 +538,206 @@ public class BookService {
      */
     public boolean incrementStock(String bookId, int quantity) {
         Query query = new Query(Criteria.where("_id").is(bookId));
-        Update update = new Update().inc("quantity", quantity);
+        Update update = touch(new Update().inc("quantity", quantity));
         UpdateResult result = mongoTemplate.updateFirst(query, update, Book.class);
         return result.getModifiedCount() > 0;
     }
 
+    /**
+     * Reserve stock for every line of an order, all or nothing.
+     * All decrements go out as one unordered bulk of conditional $inc updates, each tagged with a
+     * per-order hold marker. If every line matched, the markers are cleared (2 round trips in total).
+     * Otherwise the lines that did apply are found by their marker and restored with one pipeline
+     * update, so no stock leaks (3 round trips in total, whatever the number of lines).
+     * @param quantities bookId -> quantity to reserve
+     * @return the reservation outcome; on failure nothing stays decremented
+     */
+    public StockReservation reserveStock(Map<String, Integer> quantities) {
+        if (quantities.isEmpty()) {
+            return new StockReservation(true, List.of());
+        }
+        String holdField = STOCK_HOLDS_FIELD + "." + new ObjectId().toHexString();
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Book.class);
+        for (Map.Entry<String, Integer> line : quantities.entrySet()) {
+            int quantity = line.getValue();
+            bulk.updateOne(
+                    new Query(Criteria.where("_id").is(line.getKey()).and("quantity").gte(quantity)),
+                    touch(new Update().inc("quantity", -quantity).set(holdField, quantity)));
+        }
+        int matched = bulk.execute().getMatchedCount();
+
+        Query held = new Query(Criteria.where("_id").in(quantities.keySet()));
+        if (matched == quantities.size()) {
+            mongoTemplate.updateMulti(held, new Update().unset(holdField), Book.class);
+            return new StockReservation(true, List.of());
+        }
+
+        // Partial failure: the marker identifies exactly the decrements made by this order
+        Query applied = new Query(Criteria.where("_id").in(quantities.keySet()).and(holdField).exists(true));
+        applied.fields().include("_id");
+        Set<String> appliedIds = new HashSet<>();
+        for (Book book : mongoTemplate.find(applied, Book.class)) {
+            appliedIds.add(book.getId());
+        }
+        if (!appliedIds.isEmpty()) {
+            AggregationUpdate restore = AggregationUpdate.from(List.of(
+                    context -> new Document("$set", new Document("quantity", new Document("$add", List.of("$quantity", "$" + holdField)))
+                            .append("version", new Document("$add", List.of(new Document("$ifNull", List.of("$version", 0L)), 1L)))
+                            .append("lastModified", "$$NOW")),
+                    context -> new Document("$unset", holdField)));
+            mongoTemplate.updateMulti(applied, restore, Book.class);
+        }
+
+        List<String> failed = new ArrayList<>();
+        for (String bookId : quantities.keySet()) {
+            if (!appliedIds.contains(bookId)) {
+                failed.add(bookId);
+            }
+        }
+        logger.info("Stock reservation failed for " + failed + "; restored " + appliedIds.size() + " lines");
+        return new StockReservation(false, failed);
+    }
+
+    /**
+     * Give back stock reserved by {@link #reserveStock} (e.g. the order could not be saved),
+     * with one unordered bulk of $inc updates.
+     */
+    public void releaseStock(Map<String, Integer> quantities) {
+        if (quantities.isEmpty()) {
+            return;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Book.class);
+        for (Map.Entry<String, Integer> line : quantities.entrySet()) {
+            bulk.updateOne(new Query(Criteria.where("_id").is(line.getKey())),
+                    touch(new Update().inc("quantity", line.getValue())));
+        }
+        bulk.execute();
+    }
+
+    /**
+     * Apply many stock adjustments at once (e.g. restocking after a delivery).
+     * One query reads current quantities, then all changes are sent as a single unordered bulk.
+     * Lines for the same book are folded into one update. Relative changes only apply if the
+     * quantity is still the one that was read, so an applied line's quantity is exact. Each update
+     * also sets a marker for this request. If some updates did not match, the marker (not a
+     * re-read quantity) tells which ones landed; markers are removed afterwards.
+     * @param adjustments lines with a bookId and either a delta or an absolute quantity
+     * @return one result per input line, in input order
+     */
+    public List<StockAdjustmentResultVm> adjustStock(List<StockAdjustmentVm> adjustments) {
+        StockAdjustmentResultVm[] results = new StockAdjustmentResultVm[adjustments.size()];
+
+        Set<String> bookIds = new HashSet<>();
+        for (int i = 0; i < adjustments.size(); i++) {
+            StockAdjustmentVm line = adjustments.get(i);
+            String bookId = line != null ? line.bookId() : null;
+            if (bookId == null || bookId.isBlank()) {
+                results[i] = StockAdjustmentResultVm.failed(bookId, StockAdjustmentResultVm.INVALID, "bookId is required");
+            } else if ((line.delta() == null) == (line.absolute() == null)) {
+                results[i] = StockAdjustmentResultVm.failed(bookId, StockAdjustmentResultVm.INVALID, "Set exactly one of delta or absolute");
+            } else if (line.absolute() != null && line.absolute() < 0) {
+                results[i] = StockAdjustmentResultVm.failed(bookId, StockAdjustmentResultVm.INVALID, "Quantity cannot be negative");
+            } else {
+                bookIds.add(bookId);
+            }
+        }
+
+        // Round trip 1: current quantities
+        Map<String, Integer> currentQuantities = findQuantities(bookIds);
+
+        // Fold lines per book in input order, rejecting lines that would make stock negative
+        Map<String, PlannedStockChange> plans = new LinkedHashMap<>();
+        for (int i = 0; i < adjustments.size(); i++) {
+            if (results[i] != null) {
+                continue;
+            }
+            StockAdjustmentVm line = adjustments.get(i);
+            Integer current = currentQuantities.get(line.bookId());
+            if (current == null) {
+                results[i] = StockAdjustmentResultVm.failed(line.bookId(), StockAdjustmentResultVm.NOT_FOUND, "Book not found");
+                continue;
+            }
+            PlannedStockChange plan = plans.computeIfAbsent(line.bookId(), id -> new PlannedStockChange(current));
+            int next = line.absolute() != null ? line.absolute() : plan.expected + line.delta();
+            if (next < 0) {
+                results[i] = StockAdjustmentResultVm.failed(line.bookId(), StockAdjustmentResultVm.INSUFFICIENT_STOCK,
+                        "Stock would become negative (current " + plan.expected + ")");
+                continue;
+            }
+            if (line.absolute() != null) {
+                plan.setTo = line.absolute();
+            } else if (plan.setTo != null) {
+                plan.setTo += line.delta();
+            } else {
+                plan.delta += line.delta();
+            }
+            plan.expected = next;
+            plan.lines.add(i);
+            results[i] = StockAdjustmentResultVm.applied(line.bookId(), next);
+        }
+
+        // Round trip 2: one unordered bulk; $inc is guarded by the quantity read in round trip 1
+        String markerField = STOCK_ADJUSTMENTS_FIELD + "." + new ObjectId().toHexString();
+        BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Book.class);
+        List<String> updatedIds = new ArrayList<>();
+        for (Map.Entry<String, PlannedStockChange> entry : plans.entrySet()) {
+            PlannedStockChange plan = entry.getValue();
+            Criteria criteria = Criteria.where("_id").is(entry.getKey());
+            Update update;
+            if (plan.setTo != null) {
+                update = new Update().set("quantity", plan.setTo);
+            } else if (plan.delta != 0) {
+                criteria = criteria.and("quantity").is(plan.base);
+                update = new Update().inc("quantity", plan.delta);
+            } else {
+                continue;
+            }
+            bulkOps.updateOne(new Query(criteria), touch(update.set(markerField, true)));
+            updatedIds.add(entry.getKey());
+        }
+        if (updatedIds.isEmpty()) {
+            return Arrays.asList(results);
+        }
+
+        int matched = bulkOps.execute().getMatchedCount();
+        List<String> appliedIds = updatedIds;
+        if (matched < updatedIds.size()) {
+            // Round trip 3: the lines that landed carry this request's marker
+            Query markerQuery = new Query(Criteria.where("_id").in(updatedIds).and(markerField).exists(true));
+            markerQuery.fields().include("_id");
+            appliedIds = mongoTemplate.find(markerQuery, Book.class).stream().map(Book::getId).toList();
+            Set<String> applied = new HashSet<>(appliedIds);
+            for (String bookId : updatedIds) {
+                if (!applied.contains(bookId)) {
+                    for (int i : plans.get(bookId).lines) {
+                        results[i] = StockAdjustmentResultVm.failed(bookId, StockAdjustmentResultVm.CONFLICT,
+                                "Stock changed concurrently, please re-check");
+                    }
+                }
+            }
+        }
+        if (!appliedIds.isEmpty()) {
+            // Last round trip: drop the markers (no version bump, the content did not change)
+            mongoTemplate.updateMulti(new Query(Criteria.where("_id").in(appliedIds)),
+                    new Update().unset(markerField), Book.class);
+        }
+        return Arrays.asList(results);
+    }
+
+    private Map<String, Integer> findQuantities(Collection<String> bookIds) {
+        Map<String, Integer> quantities = new HashMap<>();
+        if (bookIds.isEmpty()) {
+            return quantities;
+        }
+        Query query = new Query(Criteria.where("_id").in(bookIds));
+        query.fields().include("quantity");
+        for (Book book : mongoTemplate.find(query, Book.class)) {
+            quantities.put(book.getId(), book.getQuantity() != null ? book.getQuantity() : 0);
+        }
+        return quantities;
+    }
+
     /**
      * Delete all books by category ID.
      * Used for cascade delete when deleting a category.
@@ -153,7 +745,24 @@ public class BookService {
      * @return number of books deleted
      */
     public long deleteBooksByCategoryId(String categoryId) {
-        return bookRepository.deleteByCategoryId(categoryId);
+        List<String> bookIds = getBookIdsByCategoryId(categoryId);
+        long deleted = bookRepository.deleteByCategoryId(categoryId);
+        deletedBookLog.record(bookIds);
+        if (!bookIds.isEmpty()) {
+            cacheInvalidationBus.publish(CacheInvalidationEvent.booksDeleted(bookIds));
+        }
+        return deleted;
+    }
+
+    /**
+     * IDs of the books in a category, reading only _id (served by category_id_idx).
+     * @param categoryId the category ID
+     * @return book IDs
+     */
+    public List<String> getBookIdsByCategoryId(String categoryId) {
+        Query query = new Query(Criteria.where("categoryId").is(categoryId));
+        query.fields().include("_id");
+        return mongoTemplate.find(query, Book.class).stream().map(Book::getId).toList();
     }
 
     /**
@@ -166,47 +775,209 @@ public class BookService {
     }
 
     /**
-     * Enhanced search: searches by title OR author OR category name.
-     * Uses Set to avoid duplicate results.
+     * Paginated search over title, author and category name, ranked by relevance.
+     * Served from the in-memory BookSearchIndex (diacritic-insensitive); only the
+     * books on the requested page are loaded, as summaries, with a single query by _id.
+     * Falls back to regex queries while the index is not built yet.
      */
-    public List<Book> searchBooks(String keyword) {
+    public Page<Book> searchBooks(String keyword, int pageNo, int pageSize) {
+        PageRequest pageRequest = PageRequest.of(pageNo, pageSize);
         if (keyword == null || keyword.trim().isEmpty()) {
-            return Collections.emptyList();
+            return new PageImpl<>(Collections.emptyList(), pageRequest, 0);
         }
-        
-        // Use LinkedHashSet to maintain insertion order and avoid duplicates
-        Set<Book> resultSet = new LinkedHashSet<>();
-        
+        if (!bookSearchIndex.isReady()) {
+            List<Book> all = searchBooksByRegex(keyword);
+            int from = (int) Math.min(pageRequest.getOffset(), all.size());
+            int to = (int) Math.min((long) from + pageSize, all.size());
+            return new PageImpl<>(all.subList(from, to), pageRequest, all.size());
+        }
+
+        List<String> rankedIds = bookSearchIndex.search(keyword);
+        int from = (int) Math.min(pageRequest.getOffset(), rankedIds.size());
+        int to = (int) Math.min((long) from + pageSize, rankedIds.size());
+        List<String> pageIds = rankedIds.subList(from, to);
+
+        // Load the page in one projected query, then restore ranking order
+        Map<String, Book> bookMap = getBookSummariesByIds(pageIds);
+        List<Book> result = new ArrayList<>(pageIds.size());
+        for (String id : pageIds) {
+            Book book = bookMap.get(id);
+            if (book != null) {
+                result.add(book);
+            }
+        }
+        return new PageImpl<>(result, pageRequest, rankedIds.size());
+    }
+
+    /**
+     * Typeahead suggestions (titles and authors) for a typed prefix, served from memory.
+     */
+    public List<BookSuggestionVm> suggest(String prefix, int limit) {
+        return bookSuggestIndex.suggest(prefix, limit);
+    }
+
+    // Database fallback used before the search index is ready
+    private List<Book> searchBooksByRegex(String keyword) {
+        // Keyed by ID to avoid duplicate results while keeping insertion order
+        Map<String, Book> resultMap = new LinkedHashMap<>();
+
         // 1. Search books by title
-        List<Book> booksByTitle = bookRepository.findByTitleContainingIgnoreCase(keyword);
-        resultSet.addAll(booksByTitle);
-        
+        bookRepository.findByTitleContainingIgnoreCase(keyword)
+                .forEach(book -> resultMap.putIfAbsent(book.getId(), book));
+
         // 2. Search books by author
-        List<Book> booksByAuthor = bookRepository.findByAuthorContainingIgnoreCase(keyword);
-        resultSet.addAll(booksByAuthor);
-        
+        bookRepository.findByAuthorContainingIgnoreCase(keyword)
+                .forEach(book -> resultMap.putIfAbsent(book.getId(), book));
+
         // 3. Search categories by name, then find books with those categoryIds
         List<Category> matchingCategories = categoryRepository.findByNameContainingIgnoreCase(keyword);
         if (!matchingCategories.isEmpty()) {
             List<String> categoryIds = matchingCategories.stream()
                     .map(Category::getId)
                     .collect(Collectors.toList());
-            List<Book> booksByCategory = bookRepository.findByCategoryIdIn(categoryIds);
-            resultSet.addAll(booksByCategory);
+            bookRepository.findByCategoryIdIn(categoryIds)
+                    .forEach(book -> resultMap.putIfAbsent(book.getId(), book));
         }
-        
+
         // Convert to list and populate category for each book
-        List<Book> result = new ArrayList<>(resultSet);
+        List<Book> result = new ArrayList<>(resultMap.values());
         result.forEach(this::populateCategory);
-        
+
         return result;
     }
 
-    // Helper method to populate transient category field
+    /**
+     * Validators of a single book response, read from a projection without loading the book:
+     * a strong ETag (including the category name, because the response embeds it) and the
+     * book's lastModified for Last-Modified / If-Modified-Since.
+     * @return the validators, or empty if the book does not exist
+     */
+    public Optional<BookValidators> getBookValidators(String id) {
+        Query query = new Query(Criteria.where("_id").is(id));
+        query.fields().include("version").include("categoryId").include("lastModified");
+        Book book = mongoTemplate.findOne(query, Book.class);
+        if (book == null) {
+            return Optional.empty();
+        }
+        String eTag = ETags.strong("book", id, book.getVersion(), book.getCategoryId(), categoryName(book.getCategoryId()));
+        return Optional.of(new BookValidators(eTag, book.getLastModified()));
+    }
+
+    /**
+     * Strong ETag of one page of {@link #getBooksWithCategory}, computed from the IDs and versions
+     * of the books on that page only. Costs one projected query; use it to revalidate, and
+     * {@link #getBooksPageETag(String, Integer, Integer, String, List)} once the page is loaded.
+     */
+    public String getBooksPageETag(String categoryId, Integer pageNo, Integer pageSize, String sortBy) {
+        Query query = new Query();
+        if (categoryId != null && !categoryId.isEmpty()) {
+            query.addCriteria(Criteria.where("categoryId").is(categoryId));
+        }
+        query.with(BookSortKey.parseOrDefault(sortBy).toSort()).skip((long) pageNo * pageSize).limit(pageSize);
+        query.fields().include("_id").include("version").include("categoryId");
+        return getBooksPageETag(categoryId, pageNo, pageSize, sortBy, mongoTemplate.find(query, Book.class));
+    }
+
+    /**
+     * Same ETag as {@link #getBooksPageETag(String, Integer, Integer, String)}, computed from an
+     * already loaded page, without a database round trip.
+     */
+    public String getBooksPageETag(String categoryId, Integer pageNo, Integer pageSize, String sortBy, List<Book> page) {
+        List<Object> parts = new ArrayList<>();
+        parts.add("books");
+        parts.add(categoryId);
+        parts.add(pageNo);
+        parts.add(pageSize);
+        parts.add(BookSortKey.parseOrDefault(sortBy).getParam());
+        for (Book book : page) {
+            parts.add(book.getId());
+            parts.add(book.getVersion());
+            parts.add(categoryName(book.getCategoryId()));
+        }
+        return ETags.strong(parts.toArray());
+    }
+
+    // Aggregation counterpart of summaryQuery
+    private static AggregationOperation summaryProjection() {
+        return context -> new Document("$project", new Document("title", 1)
+                .append("author", 1)
+                .append("price", 1)
+                .append("quantity", 1)
+                .append("categoryId", 1)
+                .append("imageUrls", new Document("$slice", List.of("$imageUrls", 1))));
+    }
+
+    private String categoryName(String categoryId) {
+        if (categoryId == null) {
+            return null;
+        }
+        return categoryCache.get(categoryId).map(Category::getName).orElse(null);
+    }
+
+    // Bump version and lastModified of a book before saving it
+    private void touch(Book book) {
+        book.setVersion(book.getVersion() != null ? book.getVersion() + 1 : 1L);
+        book.setLastModified(new Date());
+    }
+
+    // Same as touch(Book) for in-place updates
+    private Update touch(Update update) {
+        return update.inc("version", 1).currentDate("lastModified");
+    }
+
+    // Helper method to populate transient category field (served from CategoryCache)
     private void populateCategory(Book book) {
         if (book.getCategoryId() != null) {
-            categoryRepository.findById(book.getCategoryId())
+            categoryCache.get(book.getCategoryId())
                     .ifPresent(book::setCategory);
         }
     }
+
+    // Net change for one book in a bulk stock adjustment
+    private static class PlannedStockChange {
+        // Quantity read before the write; relative updates only apply while it is unchanged
+        private final int base;
+        private Integer setTo;
+        private int delta;
+        private int expected;
+        private final List<Integer> lines = new ArrayList<>();
+
+        PlannedStockChange(int current) {
+            this.base = current;
+            this.expected = current;
+        }
+    }
+
+    /**
+     * Result of {@link #getBookValidators}.
+     * @param lastModified null for books written before lastModified was tracked
+     */
+    public record BookValidators(String eTag, Date lastModified) {
+    }
+
+    /**
+     * Result of {@link #browseBooks}: one page of books plus facet counts for the current filter.
+     */
+    public record BrowseResult(List<Book> books, long total, Map<String, Long> categoryCounts,
+                               List<PriceBucket> priceBuckets, long inStock, long outOfStock) {
+    }
+
+    /**
+     * Price facet bucket [min, max); max is null for the open-ended last bucket.
+     * Books with a missing or negative price are in no bucket.
+     */
+    public record PriceBucket(Integer min, Integer max, long count) {
+    }
+
+    /**
+     * One page of books in cursor pagination mode.
+     */
+    public record CursorPage(List<Book> books, String nextCursor) {
+    }
+
+    /**
+     * Result of {@link #reserveStock}: failedBookIds lists books without enough stock (or deleted).
+     */
+    public record StockReservation(boolean reserved, List<String> failedBookIds) {
+    }
 }
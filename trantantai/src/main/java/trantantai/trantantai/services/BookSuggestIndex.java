@@ -0,0 +1,249 @@
+package trantantai.trantantai.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import trantantai.trantantai.entities.Book;
+import trantantai.trantantai.repositories.IBookRepository;
+import trantantai.trantantai.viewmodels.BookSuggestionVm;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * In-memory prefix index of book titles and authors for typeahead suggestions.
+ * Keys are diacritic-folded phrases kept in sorted maps, so a lookup is a range scan
+ * over the keys starting with the typed prefix.
+ *
+ * All matches of the prefix are ranked before truncating to the requested count: an exact
+ * phrase first, then whole-phrase matches ("clean c" -> "Clean Code"), then matches on an
+ * inner word ("code" -> "Clean Code"). Within a tier, texts carried by more books come first.
+ */
+@Component
+public class BookSuggestIndex {
+
+    private static final Logger logger = Logger.getLogger(BookSuggestIndex.class.getName());
+
+    private static final String TYPE_TITLE = "title";
+    private static final String TYPE_AUTHOR = "author";
+
+    // Separates the folded phrase from the suggestion identity inside a key
+    private static final char KEY_SEPARATOR = '\u0000';
+
+    // Match tiers, best first
+    private static final int TIER_EXACT = 0;
+    private static final int TIER_PHRASE = 1;
+    private static final int TIER_WORD = 2;
+
+    private static final Comparator<Match> RANKING = Comparator
+            .comparingInt((Match match) -> match.tier)
+            .thenComparing(match -> match.suggestion.bookCount, Comparator.reverseOrder())
+            .thenComparingInt(match -> match.suggestion.text.length())
+            .thenComparing(match -> match.suggestion.text);
+
+    private final IBookRepository bookRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Whole phrase -> suggestion
+    private final NavigableMap<String, Suggestion> phraseKeys = new TreeMap<>();
+    // Phrase starting at an inner word -> suggestion
+    private final NavigableMap<String, Suggestion> wordKeys = new TreeMap<>();
+    // Suggestion identity (type + text) -> suggestion shared by all books with that text
+    private final Map<String, Suggestion> suggestions = new HashMap<>();
+    // bookId -> identities contributed by the book
+    private final Map<String, List<String>> bookEntries = new HashMap<>();
+
+    @Autowired
+    public BookSuggestIndex(IBookRepository bookRepository) {
+        this.bookRepository = bookRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            logger.log(Level.WARNING, "Could not build book suggestion index", e);
+        }
+    }
+
+    /**
+     * Rebuild the whole index from the database.
+     */
+    public void rebuild() {
+        List<Book> allBooks = bookRepository.findAll();
+        lock.writeLock().lock();
+        try {
+            phraseKeys.clear();
+            wordKeys.clear();
+            suggestions.clear();
+            bookEntries.clear();
+            for (Book book : allBooks) {
+                addBook(book);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Built book suggestion index: " + suggestions.size() + " suggestions from " + allBooks.size() + " books");
+    }
+
+    /**
+     * Add or re-index a book after it was saved.
+     */
+    public void onBookSaved(Book book) {
+        if (book == null || book.getId() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            removeBook(book.getId());
+            addBook(book);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove books after they were deleted.
+     */
+    public void onBooksDeleted(Collection<String> bookIds) {
+        lock.writeLock().lock();
+        try {
+            for (String bookId : bookIds) {
+                removeBook(bookId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Get up to {@code limit} suggestions for a typed prefix.
+     */
+    public List<BookSuggestionVm> suggest(String prefix, int limit) {
+        String folded = TextNormalizer.fold(prefix);
+        if (folded.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        lock.readLock().lock();
+        try {
+            Map<String, Match> matches = new HashMap<>();
+            collect(phraseKeys, folded, TIER_PHRASE, matches);
+            collect(wordKeys, folded, TIER_WORD, matches);
+
+            // Keep the best `limit` matches in a max-heap on the ranking, worst at the head
+            PriorityQueue<Match> top = new PriorityQueue<>(limit + 1, RANKING.reversed());
+            for (Match match : matches.values()) {
+                top.offer(match);
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+            List<Match> ranked = new ArrayList<>(top);
+            ranked.sort(RANKING);
+
+            List<BookSuggestionVm> vms = new ArrayList<>(ranked.size());
+            for (Match match : ranked) {
+                Suggestion suggestion = match.suggestion;
+                vms.add(new BookSuggestionVm(suggestion.text, suggestion.type, suggestion.bookCount));
+            }
+            return vms;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void collect(NavigableMap<String, Suggestion> keys, String prefix, int tier, Map<String, Match> matches) {
+        for (Map.Entry<String, Suggestion> entry : keys.subMap(prefix, true, prefix + Character.MAX_VALUE, false).entrySet()) {
+            String key = entry.getKey();
+            // The folded phrase equals the prefix when the separator follows it directly
+            int matchTier = tier == TIER_PHRASE && key.charAt(prefix.length()) == KEY_SEPARATOR ? TIER_EXACT : tier;
+            Suggestion suggestion = entry.getValue();
+            Match current = matches.get(suggestion.identity());
+            if (current == null || matchTier < current.tier) {
+                matches.put(suggestion.identity(), new Match(suggestion, matchTier));
+            }
+        }
+    }
+
+    private void addBook(Book book) {
+        List<String> identities = new ArrayList<>(2);
+        addText(TYPE_TITLE, book.getTitle(), identities);
+        addText(TYPE_AUTHOR, book.getAuthor(), identities);
+        bookEntries.put(book.getId(), identities);
+    }
+
+    private void addText(String type, String text, List<String> identities) {
+        List<String> tokens = TextNormalizer.tokenize(text);
+        if (tokens.isEmpty()) {
+            return;
+        }
+        String identity = type + KEY_SEPARATOR + text.trim();
+        Suggestion suggestion = suggestions.get(identity);
+        if (suggestion == null) {
+            suggestion = new Suggestion(identity, type, text.trim());
+            suggestions.put(identity, suggestion);
+            phraseKeys.put(String.join(" ", tokens) + KEY_SEPARATOR + identity, suggestion);
+            for (int i = 1; i < tokens.size(); i++) {
+                String phrase = String.join(" ", tokens.subList(i, tokens.size()));
+                wordKeys.put(phrase + KEY_SEPARATOR + identity, suggestion);
+            }
+        }
+        suggestion.bookCount++;
+        identities.add(identity);
+    }
+
+    private void removeBook(String bookId) {
+        List<String> identities = bookEntries.remove(bookId);
+        if (identities == null) {
+            return;
+        }
+        for (String identity : identities) {
+            Suggestion suggestion = suggestions.get(identity);
+            if (suggestion == null || --suggestion.bookCount > 0) {
+                continue;
+            }
+            suggestions.remove(identity);
+            List<String> tokens = TextNormalizer.tokenize(suggestion.text);
+            phraseKeys.remove(String.join(" ", tokens) + KEY_SEPARATOR + identity);
+            for (int i = 1; i < tokens.size(); i++) {
+                wordKeys.remove(String.join(" ", tokens.subList(i, tokens.size())) + KEY_SEPARATOR + identity);
+            }
+        }
+    }
+
+    // A title or author and the number of books that carry it
+    private static class Suggestion {
+        private final String identity;
+        private final String type;
+        private final String text;
+        private int bookCount;
+
+        Suggestion(String identity, String type, String text) {
+            this.identity = identity;
+            this.type = type;
+            this.text = text;
+        }
+
+        String identity() {
+            return identity;
+        }
+    }
+
+    // A suggestion and the best tier it matched the prefix in
+    private static class Match {
+        private final Suggestion suggestion;
+        private final int tier;
+
+        Match(Suggestion suggestion, int tier) {
+            this.suggestion = suggestion;
+            this.tier = tier;
+        }
+    }
+}
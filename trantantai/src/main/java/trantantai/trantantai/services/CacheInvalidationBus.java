@@ -0,0 +1,22 @@
+package trantantai.trantantai.services;
+
+import java.util.Map;
+
+/**
+ * Publishes catalog changes to every {@link CacheInvalidationListener}.
+ * Selected with the {@code cache.invalidation.bus} property:
+ * {@code local} (default, single node) or {@code mongo} (all nodes sharing the database).
+ */
+public interface CacheInvalidationBus {
+
+    /**
+     * Publish an event. Local listeners are notified before this method returns,
+     * so the writing node never serves stale data after its own write.
+     */
+    void publish(CacheInvalidationEvent event);
+
+    /**
+     * Counters for monitoring.
+     */
+    Map<String, Object> getStats();
+}
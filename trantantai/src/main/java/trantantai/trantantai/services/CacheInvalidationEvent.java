@@ -0,0 +1,44 @@
+package trantantai.trantantai.services;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A catalog change that in-process caches must react to.
+ * Carries only IDs, so it can be broadcast to other app nodes; receivers re-read what they need.
+ */
+public record CacheInvalidationEvent(Kind kind, List<String> ids) {
+
+    public enum Kind {
+        BOOKS_SAVED,
+        BOOKS_DELETED,
+        CATEGORY_SAVED,
+        CATEGORY_DELETED,
+        // Drop and rebuild every catalog cache (manual rebuild, or a node lost events)
+        ALL
+    }
+
+    public CacheInvalidationEvent {
+        ids = ids != null ? List.copyOf(ids) : List.of();
+    }
+
+    public static CacheInvalidationEvent booksSaved(Collection<String> bookIds) {
+        return new CacheInvalidationEvent(Kind.BOOKS_SAVED, List.copyOf(bookIds));
+    }
+
+    public static CacheInvalidationEvent booksDeleted(Collection<String> bookIds) {
+        return new CacheInvalidationEvent(Kind.BOOKS_DELETED, List.copyOf(bookIds));
+    }
+
+    public static CacheInvalidationEvent categorySaved(String categoryId) {
+        return new CacheInvalidationEvent(Kind.CATEGORY_SAVED, List.of(categoryId));
+    }
+
+    public static CacheInvalidationEvent categoryDeleted(String categoryId) {
+        return new CacheInvalidationEvent(Kind.CATEGORY_DELETED, List.of(categoryId));
+    }
+
+    public static CacheInvalidationEvent all() {
+        return new CacheInvalidationEvent(Kind.ALL, List.of());
+    }
+}
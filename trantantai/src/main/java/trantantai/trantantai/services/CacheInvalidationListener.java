@@ -0,0 +1,10 @@
+package trantantai.trantantai.services;
+
+/**
+ * Receives catalog invalidation events from the {@link CacheInvalidationBus},
+ * both for local writes and for writes made on other app nodes.
+ */
+public interface CacheInvalidationListener {
+
+    void onInvalidation(CacheInvalidationEvent event);
+}
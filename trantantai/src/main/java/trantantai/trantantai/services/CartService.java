@@ -20,11 +20,14 @@ import trantantai.trantantai.repositories.IUserRepository;
 import trantantai.trantantai.constants.PaymentStatus;
 import trantantai.trantantai.constants.PaymentMethod;
 import trantantai.trantantai.constants.OrderStatus;
+import trantantai.trantantai.viewmodels.CartOperationVm;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Objects;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.logging.Logger;
@@ -33,22 +36,33 @@ import java.util.logging.Logger;
 public class CartService {
 
     private static final String CART_SESSION_KEY = "cart";
+    // Owner of the session cart, set at login; carts of logged-in users are persisted write-behind
+    private static final String CART_USER_SESSION_KEY = "cartUserId";
     private static final Logger logger = Logger.getLogger(CartService.class.getName());
 
     private final IInvoiceRepository invoiceRepository;
     private final IUserCartRepository userCartRepository;
     private final IUserRepository userRepository;
     private final BookService bookService;
+    private final StockHoldService stockHoldService;
+    private final CartWriteBehind cartWriteBehind;
+    private final OrderStatisticsCache orderStatisticsCache;
 
     @Autowired
     public CartService(IInvoiceRepository invoiceRepository, 
                        IUserCartRepository userCartRepository,
                        IUserRepository userRepository,
-                       BookService bookService) {
+                       BookService bookService,
+                       StockHoldService stockHoldService,
+                       CartWriteBehind cartWriteBehind,
+                       OrderStatisticsCache orderStatisticsCache) {
         this.invoiceRepository = invoiceRepository;
         this.userCartRepository = userCartRepository;
         this.userRepository = userRepository;
         this.bookService = bookService;
+        this.stockHoldService = stockHoldService;
+        this.cartWriteBehind = cartWriteBehind;
+        this.orderStatisticsCache = orderStatisticsCache;
     }
 
     public Cart getCart(@NotNull HttpSession session) {
@@ -60,58 +74,237 @@ public class CartService {
                 });
     }
 
+    /**
+     * Store the cart after a change; for logged-in users it is also queued for write-behind persistence.
+     */
     public void updateCart(@NotNull HttpSession session, Cart cart) {
         session.setAttribute(CART_SESSION_KEY, cart);
+        String userId = (String) session.getAttribute(CART_USER_SESSION_KEY);
+        if (userId != null) {
+            cartWriteBehind.markDirty(userId, cart.getCartItems());
+        }
     }
 
     public void removeCart(@NotNull HttpSession session) {
         session.removeAttribute(CART_SESSION_KEY);
+        String userId = (String) session.getAttribute(CART_USER_SESSION_KEY);
+        if (userId != null) {
+            cartWriteBehind.markDirty(userId, List.of());
+        }
     }
 
+    // Running totals kept by Cart; constant time regardless of the number of lines
     public int getSumQuantity(@NotNull HttpSession session) {
-        return getCart(session).getCartItems().stream()
-                .mapToInt(Item::getQuantity)
-                .sum();
+        return getCart(session).getTotalQuantity();
     }
 
     public double getSumPrice(@NotNull HttpSession session) {
-        return getCart(session).getCartItems().stream()
-                .mapToDouble(item -> item.getPrice() * item.getQuantity())
-                .sum();
+        return getCart(session).getTotalPrice();
     }
 
     /**
-     * Validate cart items and remove any that reference deleted books.
-     * Called when displaying cart to ensure data consistency.
-     * @return number of items removed
+     * Validate cart items against the catalog with one batched query.
+     * Removes lines of deleted books, moves lines whose price changed to the current price,
+     * and reports lines that ask for more than the available stock.
+     * Called when displaying cart and checkout so problems show up before saveCart.
      */
-    public int validateAndCleanCart(@NotNull HttpSession session) {
+    public CartValidation validateAndCleanCart(@NotNull HttpSession session) {
         Cart cart = getCart(session);
-        List<Item> items = cart.getCartItems();
 
-        if (items.isEmpty()) {
-            return 0;
+        if (cart.isEmpty()) {
+            return CartValidation.EMPTY;
         }
 
-        int originalSize = items.size();
+        // One $in round trip for every line (projects only _id, quantity and price)
+        List<String> bookIds = new ArrayList<>(cart.size());
+        for (Item item : cart.getCartItems()) {
+            bookIds.add(item.getBookId());
+        }
+        Map<String, Book> current = bookService.getStockAndPrices(bookIds);
+        // Reservation mode: copies held by other shoppers are not available to this cart
+        Map<String, Integer> heldByOthers = stockHoldService.getHeldByOthers(session, bookIds);
 
-        // Remove items where book no longer exists (use fast existsById check)
-        items.removeIf(item -> {
-            boolean exists = bookService.existsById(item.getBookId());
-            if (!exists) {
+        int removedCount = cart.removeItemsIf(item -> {
+            if (!current.containsKey(item.getBookId())) {
                 logger.warning("Removing cart item - book deleted: " + item.getBookId());
                 return true;
             }
             return false;
         });
 
-        int removedCount = originalSize - items.size();
-        if (removedCount > 0) {
+        List<String> repricedBooks = new ArrayList<>();
+        Map<String, Integer> insufficientStock = new LinkedHashMap<>();
+        for (Item item : cart.getCartItems()) {
+            Book book = current.get(item.getBookId());
+            if (book.getPrice() != null && !book.getPrice().equals(item.getPrice())) {
+                repricedBooks.add(item.getBookName());
+                cart.putItem(new Item(item.getBookId(), item.getBookName(), book.getPrice(), item.getQuantity()));
+            }
+            int available = Math.max(0, (book.getQuantity() != null ? book.getQuantity() : 0)
+                    - heldByOthers.getOrDefault(item.getBookId(), 0));
+            if (item.getQuantity() > available) {
+                insufficientStock.put(item.getBookId(), available);
+            }
+        }
+
+        if (removedCount > 0 || !repricedBooks.isEmpty()) {
             updateCart(session, cart);
-            logger.info("Cleaned cart: removed " + removedCount + " items (deleted books)");
+            logger.info("Cleaned cart: removed " + removedCount + " items (deleted books), repriced " + repricedBooks.size());
+        }
+
+        return new CartValidation(removedCount, repricedBooks, insufficientStock);
+    }
+
+    /**
+     * Outcome of {@link #validateAndCleanCart}.
+     * @param removedCount lines removed because the book was deleted
+     * @param repricedBooks names of lines moved to the current price
+     * @param insufficientStock bookId -> available quantity, for lines asking for more than that
+     */
+    public record CartValidation(int removedCount, List<String> repricedBooks, Map<String, Integer> insufficientStock) {
+        static final CartValidation EMPTY = new CartValidation(0, List.of(), Map.of());
+    }
+
+    /**
+     * Apply a list of add / update / remove operations to the session cart as one unit.
+     * The resulting quantity of every touched line is checked against the catalog with one $in query
+     * (and, in reservation mode, held in one holdAll); if any line fails, the cart is left unchanged.
+     * New lines take the catalog title and price. Update of a book that is not in the cart is ignored,
+     * as in {@link Cart#updateItems}.
+     * @throws IllegalArgumentException if an operation is malformed
+     */
+    public CartBatchResult applyBatch(@NotNull HttpSession session, List<CartOperationVm> operations) {
+        Cart cart = getCart(session);
+
+        // Resulting quantity of each touched line, in first-touched order (0 = removed)
+        Map<String, Integer> targets = new LinkedHashMap<>();
+        for (CartOperationVm operation : operations) {
+            String bookId = operation.bookId();
+            if (bookId == null || bookId.isBlank() || operation.op() == null) {
+                throw new IllegalArgumentException("Each operation needs an op and a bookId");
+            }
+            Item line = cart.getItem(bookId);
+            int current = targets.getOrDefault(bookId, line != null ? line.getQuantity() : 0);
+            int quantity = operation.quantity() != null ? operation.quantity() : 0;
+            switch (operation.op().toLowerCase()) {
+                case CartOperationVm.ADD -> {
+                    if (quantity <= 0) {
+                        throw new IllegalArgumentException("add needs a positive quantity: " + bookId);
+                    }
+                    targets.put(bookId, current + quantity);
+                }
+                case CartOperationVm.UPDATE -> {
+                    if (quantity < 0) {
+                        throw new IllegalArgumentException("update needs a quantity of 0 or more: " + bookId);
+                    }
+                    if (line != null || targets.containsKey(bookId)) {
+                        targets.put(bookId, quantity);
+                    }
+                }
+                case CartOperationVm.REMOVE -> targets.put(bookId, 0);
+                default -> throw new IllegalArgumentException("Unknown cart operation: " + operation.op());
+            }
+        }
+        if (targets.isEmpty()) {
+            return CartBatchResult.ok();
+        }
+
+        Map<String, Integer> kept = new LinkedHashMap<>();
+        List<String> dropped = new ArrayList<>();
+        targets.forEach((bookId, quantity) -> {
+            if (quantity > 0) {
+                kept.put(bookId, quantity);
+            } else {
+                dropped.add(bookId);
+            }
+        });
+
+        // One $in round trip for every line that stays in the cart
+        Map<String, Book> current = bookService.getStockAndPrices(kept.keySet());
+        List<String> notFound = new ArrayList<>();
+        Map<String, Integer> insufficientStock = new LinkedHashMap<>();
+        for (Map.Entry<String, Integer> line : kept.entrySet()) {
+            Book book = current.get(line.getKey());
+            if (book == null) {
+                notFound.add(line.getKey());
+            } else if (!stockHoldService.isEnabled()) {
+                int available = book.getQuantity() != null ? book.getQuantity() : 0;
+                if (line.getValue() > available) {
+                    insufficientStock.put(line.getKey(), available);
+                }
+            }
+        }
+        if (!notFound.isEmpty() || !insufficientStock.isEmpty()) {
+            return new CartBatchResult(false, notFound, insufficientStock);
+        }
+
+        // Reservation mode: hold all kept lines at once; on failure put this shopper's holds back as they were
+        Map<String, Integer> refused = stockHoldService.holdAll(session, kept);
+        if (!refused.isEmpty()) {
+            Map<String, Integer> previous = new LinkedHashMap<>();
+            List<String> added = new ArrayList<>();
+            for (String bookId : kept.keySet()) {
+                Item line = cart.getItem(bookId);
+                if (line != null) {
+                    previous.put(bookId, line.getQuantity());
+                } else {
+                    added.add(bookId);
+                }
+            }
+            stockHoldService.holdAll(session, previous);
+            stockHoldService.release(session, added);
+            return new CartBatchResult(false, List.of(), refused);
+        }
+
+        for (Map.Entry<String, Integer> line : kept.entrySet()) {
+            if (cart.getItem(line.getKey()) != null) {
+                cart.updateItems(line.getKey(), line.getValue());
+            } else {
+                Book book = current.get(line.getKey());
+                cart.putItem(new Item(line.getKey(), book.getTitle(), book.getPrice(), line.getValue()));
+            }
+        }
+        for (String bookId : dropped) {
+            cart.removeItems(bookId);
+        }
+        stockHoldService.release(session, dropped);
+        updateCart(session, cart);
+        return CartBatchResult.ok();
+    }
+
+    /**
+     * Outcome of {@link #applyBatch}; when not applied the cart is unchanged.
+     * @param notFound books that no longer exist
+     * @param insufficientStock bookId -> available quantity, for lines asking for more than that
+     */
+    public record CartBatchResult(boolean applied, List<String> notFound, Map<String, Integer> insufficientStock) {
+        static CartBatchResult ok() {
+            return new CartBatchResult(true, List.of(), Map.of());
+        }
+    }
+
+    /**
+     * Hold stock for every cart line (reservation mode; no-op otherwise).
+     * @return bookId -> quantity still available, for lines that could not be held
+     */
+    public Map<String, Integer> holdCart(@NotNull HttpSession session) {
+        return stockHoldService.holdAll(session, lineQuantities(getCart(session)));
+    }
+
+    private Map<String, Integer> lineQuantities(Cart cart) {
+        Map<String, Integer> quantities = new LinkedHashMap<>();
+        for (Item item : cart.getCartItems()) {
+            quantities.put(item.getBookId(), item.getQuantity());
         }
+        return quantities;
+    }
 
-        return removedCount;
+    private String bookNames(Cart cart, Collection<String> bookIds) {
+        List<String> names = new ArrayList<>();
+        for (String bookId : bookIds) {
+            names.add(cart.getItem(bookId).getBookName());
+        }
+        return String.join(", ", names);
     }
 
     /**
@@ -120,25 +313,25 @@ public class CartService {
     public Invoice saveCart(@NotNull HttpSession session, PaymentMethod paymentMethod) {
         Cart cart = getCart(session);
         
-        if (cart.getCartItems().isEmpty()) {
+        if (cart.isEmpty()) {
             return null;
         }
         
-        // Validate and decrement stock (existing logic)
-        for (Item item : cart.getCartItems()) {
-            Book book = bookService.getBookById(item.getBookId())
-                    .orElseThrow(() -> new RuntimeException("Sách không tồn tại"));
-            if (book.getQuantity() < item.getQuantity()) {
-                throw new RuntimeException("Không đủ hàng trong kho cho sách: " + book.getTitle());
-            }
+        Map<String, Integer> quantities = lineQuantities(cart);
+
+        // Reservation mode: the lines must still be covered by this shopper's holds (re-held if expired)
+        Map<String, Integer> unheld = stockHoldService.holdAll(session, quantities);
+        if (!unheld.isEmpty()) {
+            throw new RuntimeException("Không đủ hàng trong kho cho sách: " + bookNames(cart, unheld.keySet()));
         }
-        
-        for (Item item : cart.getCartItems()) {
-            boolean success = bookService.decrementStock(item.getBookId(), item.getQuantity());
-            if (!success) {
-                throw new RuntimeException("Không thể giảm số lượng tồn kho");
-            }
+
+        // Reserve stock for all lines at once; on failure nothing stays decremented
+        BookService.StockReservation reservation = bookService.reserveStock(quantities);
+        if (!reservation.reserved()) {
+            throw new RuntimeException("Không đủ hàng trong kho cho sách: " + bookNames(cart, reservation.failedBookIds()));
         }
+        // The holds are now real decrements
+        stockHoldService.releaseAll(session);
         
         // Create invoice
         Invoice invoice = new Invoice();
@@ -181,8 +374,15 @@ public class CartService {
             invoice.addItemInvoice(itemInvoice);
         }
         
-        // Save and clear
-        Invoice savedInvoice = invoiceRepository.save(invoice);
+        // Save and clear; give the stock back if the order cannot be stored
+        Invoice savedInvoice;
+        try {
+            savedInvoice = invoiceRepository.save(invoice);
+        } catch (RuntimeException e) {
+            bookService.releaseStock(quantities);
+            throw e;
+        }
+        orderStatisticsCache.recordCreated(savedInvoice.getOrderStatus());
         logger.info("=== Invoice saved successfully ===");
         logger.info("Invoice ID: " + savedInvoice.getId());
         logger.info("Order Status: " + savedInvoice.getOrderStatus());
@@ -251,8 +451,11 @@ public class CartService {
             return;
         }
         
+        // Written synchronously below, so a queued snapshot is redundant
+        cartWriteBehind.discard(userId);
+
         Cart cart = getCart(session);
-        if (cart.getCartItems().isEmpty()) {
+        if (cart.isEmpty()) {
             // Delete existing cart if session cart is empty
             userCartRepository.deleteByUserId(userId);
             logger.info("Deleted empty cart for user: " + userId);
@@ -268,7 +471,7 @@ public class CartService {
         userCart.setLastUpdated(new Date());
         
         userCartRepository.save(userCart);
-        logger.info("Saved cart with " + cart.getCartItems().size() + " items for user: " + userId);
+        logger.info("Saved cart with " + cart.size() + " items for user: " + userId);
     }
     
     /**
@@ -281,75 +484,62 @@ public class CartService {
             return;
         }
         
+        session.setAttribute(CART_USER_SESSION_KEY, userId);
+        Cart sessionCart = getCart(session);
+
         Optional<UserCart> savedCartOpt = userCartRepository.findByUserId(userId);
         if (savedCartOpt.isEmpty()) {
             logger.info("No saved cart found for user: " + userId);
+            if (!sessionCart.isEmpty()) {
+                updateCart(session, sessionCart);
+            }
             return;
         }
         
         UserCart savedCart = savedCartOpt.get();
-        Cart sessionCart = getCart(session);
         
-        // Merge saved cart into session cart
-        List<Item> mergedItems = mergeCartItems(sessionCart.getCartItems(), savedCart.getCartItems());
-        sessionCart.setCartItems(mergedItems);
+        // Merge saved cart into session cart; the merged cart replaces the saved one on the next flush
+        mergeCartItems(sessionCart, savedCart.getCartItems());
         updateCart(session, sessionCart);
         
-        // Delete saved cart from DB after restoration
-        userCartRepository.deleteByUserId(userId);
-        
-        logger.info("Restored and merged cart with " + mergedItems.size() + " items for user: " + userId);
+        logger.info("Restored and merged cart with " + sessionCart.size() + " items for user: " + userId);
     }
     
     /**
-     * Merge two lists of cart items.
+     * Merge saved cart items into the session cart.
      * For duplicate items (same bookId), quantities are summed.
      * Invalid items (deleted books, out of stock) are skipped.
      */
-    private List<Item> mergeCartItems(List<Item> sessionItems, List<Item> savedItems) {
-        List<Item> merged = new ArrayList<>(sessionItems);
-        
+    private void mergeCartItems(Cart sessionCart, List<Item> savedItems) {
+        // Stock, price and title of every saved line in one query
+        Map<String, Book> books = bookService.getStockAndPrices(
+                savedItems.stream().map(Item::getBookId).toList());
         for (Item savedItem : savedItems) {
             // Validate item - check if book still exists and has stock
-            Optional<Book> bookOpt = bookService.getBookById(savedItem.getBookId());
-            if (bookOpt.isEmpty()) {
+            Book book = books.get(savedItem.getBookId());
+            if (book == null) {
                 logger.warning("Skipping cart item - book no longer exists: " + savedItem.getBookId());
                 continue;
             }
             
-            Book book = bookOpt.get();
             if (book.getQuantity() == null || book.getQuantity() <= 0) {
                 logger.warning("Skipping cart item - book out of stock: " + book.getTitle());
                 continue;
             }
             
-            // Find existing item in session cart
-            Optional<Item> existingItem = merged.stream()
-                    .filter(item -> Objects.equals(item.getBookId(), savedItem.getBookId()))
-                    .findFirst();
-            
-            if (existingItem.isPresent()) {
-                // Sum quantities, cap at available stock
-                int newQuantity = existingItem.get().getQuantity() + savedItem.getQuantity();
-                int cappedQuantity = Math.min(newQuantity, book.getQuantity());
-                existingItem.get().setQuantity(cappedQuantity);
-                
-                // Update price in case it changed
-                existingItem.get().setPrice(book.getPrice());
-                existingItem.get().setBookName(book.getTitle());
-            } else {
-                // Add new item, cap at available stock
-                int cappedQuantity = Math.min(savedItem.getQuantity(), book.getQuantity());
-                Item newItem = new Item(
-                        savedItem.getBookId(),
-                        book.getTitle(),
-                        book.getPrice(),
-                        cappedQuantity
-                );
-                merged.add(newItem);
-            }
+            // Sum with the session line (keyed lookup), cap at available stock,
+            // and refresh name and price in case they changed
+            Item existingItem = sessionCart.getItem(savedItem.getBookId());
+            int newQuantity = existingItem != null
+                    ? existingItem.getQuantity() + savedItem.getQuantity()
+                    : savedItem.getQuantity();
+            int cappedQuantity = Math.min(newQuantity, book.getQuantity());
+            sessionCart.putItem(new Item(
+                    savedItem.getBookId(),
+                    book.getTitle(),
+                    book.getPrice(),
+                    cappedQuantity
+            ));
         }
-        
-        return merged;
     }
 }
@@ -0,0 +1,124 @@
+package trantantai.trantantai.services;
+
+import org.bson.types.ObjectId;
+import trantantai.trantantai.daos.Cart;
+import trantantai.trantantai.daos.Item;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact binary form of a {@link Cart} for the session store.
+ * A typical line takes about 25 bytes plus the book name (ObjectId book IDs are packed into 12 bytes),
+ * several times smaller than Java serialization, which also writes class descriptors.
+ *
+ * Layout: version byte, varint line count, then per line a flags byte, the book ID, the optional
+ * name (modified UTF-8), the optional price (8-byte double) and a varint quantity.
+ * Totals are not stored; {@link Cart#setCartItems} recomputes them.
+ */
+public final class CartSessionCodec {
+
+    private static final int VERSION = 1;
+
+    private static final int FLAG_OBJECT_ID = 1;
+    private static final int FLAG_NAME = 1 << 1;
+    private static final int FLAG_PRICE = 1 << 2;
+
+    private CartSessionCodec() {
+    }
+
+    public static byte[] encode(Cart cart) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(16 + cart.size() * 48);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            writeVarInt(out, cart.size());
+            for (Item item : cart.getCartItems()) {
+                String bookId = item.getBookId();
+                boolean objectId = isCanonicalObjectId(bookId);
+                int flags = (objectId ? FLAG_OBJECT_ID : 0)
+                        | (item.getBookName() != null ? FLAG_NAME : 0)
+                        | (item.getPrice() != null ? FLAG_PRICE : 0);
+                out.writeByte(flags);
+                if (objectId) {
+                    out.write(new ObjectId(bookId).toByteArray());
+                } else {
+                    out.writeUTF(bookId);
+                }
+                if (item.getBookName() != null) {
+                    out.writeUTF(item.getBookName());
+                }
+                if (item.getPrice() != null) {
+                    out.writeDouble(item.getPrice());
+                }
+                writeVarInt(out, item.getQuantity());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @throws IllegalArgumentException if the bytes are not a cart written by {@link #encode}
+     */
+    public static Cart decode(byte[] data) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            int version = in.readUnsignedByte();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Unsupported cart encoding version " + version);
+            }
+            int count = readVarInt(in);
+            List<Item> items = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                int flags = in.readUnsignedByte();
+                String bookId;
+                if ((flags & FLAG_OBJECT_ID) != 0) {
+                    byte[] id = new byte[12];
+                    in.readFully(id);
+                    bookId = new ObjectId(id).toHexString();
+                } else {
+                    bookId = in.readUTF();
+                }
+                String name = (flags & FLAG_NAME) != 0 ? in.readUTF() : null;
+                Double price = (flags & FLAG_PRICE) != 0 ? in.readDouble() : null;
+                items.add(new Item(bookId, name, price, readVarInt(in)));
+            }
+            Cart cart = new Cart();
+            cart.setCartItems(items);
+            return cart;
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Truncated cart encoding", e);
+        }
+    }
+
+    // Only pack IDs that decode back to the identical string
+    private static boolean isCanonicalObjectId(String id) {
+        return id != null && ObjectId.isValid(id) && id.equals(id.toLowerCase());
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint in cart encoding");
+    }
+}
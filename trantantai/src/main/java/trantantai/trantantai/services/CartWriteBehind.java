@@ -0,0 +1,140 @@
+package trantantai.trantantai.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import trantantai.trantantai.daos.Item;
+import trantantai.trantantai.entities.UserCart;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Write-behind persistence of logged-in users' session carts to user_carts.
+ * Request threads only record a snapshot of the changed cart; a scheduled flush writes the
+ * latest snapshot per user in unordered bulk upserts keyed by userId, and a final flush runs
+ * on graceful shutdown. A crash loses at most one flush interval of cart edits.
+ */
+@Component
+public class CartWriteBehind {
+
+    private static final Logger logger = Logger.getLogger(CartWriteBehind.class.getName());
+
+    private static final int BATCH_SIZE = 500;
+
+    // userId -> latest cart snapshot not yet written; newer edits replace older ones
+    private final Map<String, List<Item>> dirty = new ConcurrentHashMap<>();
+
+    private final MongoTemplate mongoTemplate;
+
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong writtenCarts = new AtomicLong();
+    private final AtomicLong failedFlushes = new AtomicLong();
+
+    @Autowired
+    public CartWriteBehind(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * Record that a user's cart changed. Copies the lines (no I/O), so the session cart
+     * can keep changing while the snapshot waits for the next flush.
+     */
+    public void markDirty(String userId, List<Item> cartItems) {
+        List<Item> snapshot = new ArrayList<>(cartItems.size());
+        for (Item item : cartItems) {
+            snapshot.add(new Item(item.getBookId(), item.getBookName(), item.getPrice(), item.getQuantity()));
+        }
+        dirty.put(userId, snapshot);
+    }
+
+    /**
+     * Drop a pending snapshot (the cart was just written synchronously).
+     */
+    public void discard(String userId) {
+        dirty.remove(userId);
+    }
+
+    @Scheduled(fixedDelayString = "${cart.write-behind.interval-ms:5000}")
+    public void flush() {
+        if (dirty.isEmpty()) {
+            return;
+        }
+        flushes.incrementAndGet();
+
+        // Drain entry by entry: an edit arriving during the flush stays queued for the next one
+        Map<String, List<Item>> batch = new LinkedHashMap<>();
+        Iterator<String> userIds = dirty.keySet().iterator();
+        while (userIds.hasNext()) {
+            String userId = userIds.next();
+            List<Item> snapshot = dirty.remove(userId);
+            if (snapshot == null) {
+                continue;
+            }
+            batch.put(userId, snapshot);
+            if (batch.size() >= BATCH_SIZE) {
+                write(batch);
+                batch.clear();
+            }
+        }
+        write(batch);
+    }
+
+    @EventListener(ContextClosedEvent.class)
+    public void flushOnShutdown() {
+        flush();
+        logger.info("Flushed pending carts on shutdown");
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("pending", dirty.size());
+        stats.put("flushes", flushes.get());
+        stats.put("writtenCarts", writtenCarts.get());
+        stats.put("failedFlushes", failedFlushes.get());
+        return stats;
+    }
+
+    private void write(Map<String, List<Item>> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        Date now = new Date();
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, UserCart.class);
+        for (Map.Entry<String, List<Item>> entry : batch.entrySet()) {
+            Query query = new Query(Criteria.where("userId").is(entry.getKey()));
+            if (entry.getValue().isEmpty()) {
+                // Same rule as saveCartToDatabase: an empty cart is not kept
+                bulk.remove(query);
+            } else {
+                bulk.upsert(query, new Update().set("cartItems", entry.getValue()).set("lastUpdated", now));
+            }
+        }
+        try {
+            bulk.execute();
+            writtenCarts.addAndGet(batch.size());
+        } catch (RuntimeException e) {
+            // Re-queue unless a newer snapshot arrived meanwhile
+            failedFlushes.incrementAndGet();
+            for (Map.Entry<String, List<Item>> entry : batch.entrySet()) {
+                dirty.putIfAbsent(entry.getKey(), entry.getValue());
+            }
+            logger.log(Level.WARNING, "Failed to flush " + batch.size() + " carts: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package trantantai.trantantai.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import trantantai.trantantai.entities.Book;
+import trantantai.trantantai.entities.Category;
+import trantantai.trantantai.repositories.IBookRepository;
+import trantantai.trantantai.repositories.ICategoryRepository;
+
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.logging.Logger;
+
+/**
+ * Applies catalog invalidation events to the in-process caches and indexes:
+ * category cache, search and suggestion indexes, related books and rendered home fragments.
+ * Saved books and categories are re-read by ID, so events from other nodes apply the same way as local ones.
+ */
+@Component
+public class CatalogCacheInvalidator implements CacheInvalidationListener {
+
+    private static final Logger logger = Logger.getLogger(CatalogCacheInvalidator.class.getName());
+
+    private final IBookRepository bookRepository;
+    private final ICategoryRepository categoryRepository;
+    private final CategoryCache categoryCache;
+    private final BookSearchIndex bookSearchIndex;
+    private final BookSuggestIndex bookSuggestIndex;
+    private final RelatedBooksService relatedBooksService;
+    private final HomeFragmentCache homeFragmentCache;
+
+    @Autowired
+    public CatalogCacheInvalidator(IBookRepository bookRepository, ICategoryRepository categoryRepository,
+                                   CategoryCache categoryCache, BookSearchIndex bookSearchIndex,
+                                   BookSuggestIndex bookSuggestIndex, RelatedBooksService relatedBooksService,
+                                   HomeFragmentCache homeFragmentCache) {
+        this.bookRepository = bookRepository;
+        this.categoryRepository = categoryRepository;
+        this.categoryCache = categoryCache;
+        this.bookSearchIndex = bookSearchIndex;
+        this.bookSuggestIndex = bookSuggestIndex;
+        this.relatedBooksService = relatedBooksService;
+        this.homeFragmentCache = homeFragmentCache;
+    }
+
+    @Override
+    public void onInvalidation(CacheInvalidationEvent event) {
+        switch (event.kind()) {
+            case BOOKS_SAVED -> {
+                // One $in query; IDs that are gone by now were deleted meanwhile
+                Set<String> missing = new HashSet<>(event.ids());
+                for (Book book : bookRepository.findAllById(event.ids())) {
+                    missing.remove(book.getId());
+                    bookSearchIndex.onBookSaved(book);
+                    bookSuggestIndex.onBookSaved(book);
+                }
+                if (!missing.isEmpty()) {
+                    bookSearchIndex.onBooksDeleted(missing);
+                    bookSuggestIndex.onBooksDeleted(missing);
+                }
+                relatedBooksService.invalidateAll();
+                homeFragmentCache.invalidate();
+            }
+            case BOOKS_DELETED -> {
+                bookSearchIndex.onBooksDeleted(event.ids());
+                bookSuggestIndex.onBooksDeleted(event.ids());
+                relatedBooksService.invalidateAll();
+                homeFragmentCache.invalidate();
+            }
+            case CATEGORY_SAVED -> {
+                for (String id : event.ids()) {
+                    Optional<Category> category = categoryRepository.findById(id);
+                    if (category.isPresent()) {
+                        categoryCache.put(category.get());
+                        bookSearchIndex.onCategorySaved(category.get());
+                    } else {
+                        categoryCache.evict(id);
+                        bookSearchIndex.onCategoryDeleted(id);
+                    }
+                }
+                homeFragmentCache.invalidate();
+            }
+            case CATEGORY_DELETED -> {
+                for (String id : event.ids()) {
+                    categoryCache.evict(id);
+                    bookSearchIndex.onCategoryDeleted(id);
+                }
+                homeFragmentCache.invalidate();
+            }
+            case ALL -> {
+                categoryCache.reload();
+                bookSearchIndex.rebuild();
+                bookSuggestIndex.rebuild();
+                relatedBooksService.invalidateAll();
+                homeFragmentCache.invalidate();
+                logger.info("Rebuilt all catalog caches");
+            }
+        }
+    }
+}
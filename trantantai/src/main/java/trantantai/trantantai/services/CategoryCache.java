@@ -0,0 +1,183 @@
+package trantantai.trantantai.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import trantantai.trantantai.entities.Category;
+import trantantai.trantantai.repositories.ICategoryRepository;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * In-process cache of all categories, keyed by ID.
+ * Loaded once on first access and kept current by CatalogCacheInvalidator,
+ * so attaching a category to a book never needs a database round trip.
+ * Bounded to MAX_ENTRIES; categories beyond the bound are read through.
+ * IDs found missing are remembered (up to MAX_ENTRIES) so repeated lookups of a stale ID
+ * don't hit the database; saving or reloading a category clears its entry.
+ */
+@Component
+public class CategoryCache {
+
+    private static final Logger logger = Logger.getLogger(CategoryCache.class.getName());
+    private static final int MAX_ENTRIES = 10_000;
+
+    private final ICategoryRepository categoryRepository;
+
+    // Insertion-ordered so getAll() keeps the collection's natural order
+    private volatile Map<String, Category> categories;
+
+    // IDs known not to exist, and a count of put() calls to detect a save racing a lookup
+    private final Set<String> absent = ConcurrentHashMap.newKeySet();
+    private final AtomicLong puts = new AtomicLong();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong reloads = new AtomicLong();
+
+    @Autowired
+    public CategoryCache(ICategoryRepository categoryRepository) {
+        this.categoryRepository = categoryRepository;
+    }
+
+    /**
+     * Get a category by ID, falling back to the database on a miss.
+     */
+    public Optional<Category> get(String id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        Category category = snapshot().get(id);
+        if (category != null) {
+            hits.incrementAndGet();
+            return Optional.of(category);
+        }
+
+        if (absent.contains(id)) {
+            hits.incrementAndGet();
+            return Optional.empty();
+        }
+
+        misses.incrementAndGet();
+        long putsBefore = puts.get();
+        Optional<Category> loaded = categoryRepository.findById(id);
+        if (loaded.isPresent()) {
+            put(loaded.get());
+        } else {
+            markAbsent(id, putsBefore);
+        }
+        return loaded;
+    }
+
+    /**
+     * Check whether a category ID exists (served from memory when loaded).
+     */
+    public boolean contains(String id) {
+        return get(id).isPresent();
+    }
+
+    /**
+     * Get all cached categories in load order.
+     */
+    public List<Category> getAll() {
+        return new ArrayList<>(snapshot().values());
+    }
+
+    /**
+     * Add or replace a category after it was saved.
+     */
+    public synchronized void put(Category category) {
+        if (category == null || category.getId() == null) {
+            return;
+        }
+        puts.incrementAndGet();
+        absent.remove(category.getId());
+        Map<String, Category> current = snapshot();
+        if (!current.containsKey(category.getId()) && current.size() >= MAX_ENTRIES) {
+            logger.warning("Category cache is full (" + MAX_ENTRIES + "), not caching: " + category.getId());
+            return;
+        }
+        Map<String, Category> copy = new LinkedHashMap<>(current);
+        copy.put(category.getId(), category);
+        categories = copy;
+    }
+
+    /**
+     * Remove a category after it was deleted.
+     */
+    public synchronized void evict(String id) {
+        Map<String, Category> current = snapshot();
+        if (!current.containsKey(id)) {
+            return;
+        }
+        Map<String, Category> copy = new LinkedHashMap<>(current);
+        copy.remove(id);
+        categories = copy;
+    }
+
+    /**
+     * Drop everything and reload from the database.
+     */
+    public synchronized void reload() {
+        Map<String, Category> loaded = new LinkedHashMap<>();
+        for (Category category : categoryRepository.findAll()) {
+            if (loaded.size() >= MAX_ENTRIES) {
+                logger.warning("Category cache truncated at " + MAX_ENTRIES + " entries");
+                break;
+            }
+            loaded.put(category.getId(), category);
+        }
+        categories = loaded;
+        puts.incrementAndGet();
+        absent.clear();
+        reloads.incrementAndGet();
+        logger.info("Loaded " + loaded.size() + " categories into cache");
+    }
+
+    // Synchronized with put(): skipped if any category was saved while findById was running
+    private synchronized void markAbsent(String id, long putsBefore) {
+        if (puts.get() == putsBefore && absent.size() < MAX_ENTRIES) {
+            absent.add(id);
+        }
+    }
+
+    /**
+     * Hit/miss statistics for monitoring.
+     */
+    public Map<String, Object> getStats() {
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        long total = hitCount + missCount;
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("size", snapshot().size());
+        stats.put("maxSize", MAX_ENTRIES);
+        stats.put("absent", absent.size());
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("reloads", reloads.get());
+        stats.put("hitRate", total > 0 ? (double) hitCount / total : 0.0);
+        return stats;
+    }
+
+    private Map<String, Category> snapshot() {
+        Map<String, Category> current = categories;
+        if (current == null) {
+            synchronized (this) {
+                if (categories == null) {
+                    reload();
+                }
+                current = categories;
+            }
+        }
+        return current;
+    }
+}
@@ -3,15 +3,14 @@ package trantantai.trantantai.services;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import trantantai.trantantai.entities.Book;
 import trantantai.trantantai.entities.Category;
 import trantantai.trantantai.repositories.IBookRepository;
 import trantantai.trantantai.repositories.ICategoryRepository;
 import trantantai.trantantai.repositories.IWishlistRepository;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @Service
 public class CategoryService {
@@ -20,33 +19,52 @@ public class CategoryService {
     private final IBookRepository bookRepository;
     private final UserCartService userCartService;
     private final IWishlistRepository wishlistRepository;
+    private final CategoryCache categoryCache;
+    private final CacheInvalidationBus cacheInvalidationBus;
+    private final DeletedBookLog deletedBookLog;
+    private final BookService bookService;
 
     @Autowired
     public CategoryService(ICategoryRepository categoryRepository, IBookRepository bookRepository,
-                           UserCartService userCartService, IWishlistRepository wishlistRepository) {
+                           UserCartService userCartService, IWishlistRepository wishlistRepository,
+                           CategoryCache categoryCache, CacheInvalidationBus cacheInvalidationBus,
+                           DeletedBookLog deletedBookLog, BookService bookService) {
         this.categoryRepository = categoryRepository;
         this.bookRepository = bookRepository;
         this.userCartService = userCartService;
         this.wishlistRepository = wishlistRepository;
+        this.categoryCache = categoryCache;
+        this.cacheInvalidationBus = cacheInvalidationBus;
+        this.deletedBookLog = deletedBookLog;
+        this.bookService = bookService;
     }
 
     public List<Category> getAllCategories() {
         return categoryRepository.findAll();
     }
 
+    /**
+     * Get all categories from the in-memory cache (no database query once loaded).
+     */
+    public List<Category> getCachedCategories() {
+        return categoryCache.getAll();
+    }
+
     public Optional<Category> getCategoryById(String id) {
         return categoryRepository.findById(id);
     }
 
     public void addCategory(Category category) {
-        categoryRepository.save(category);
+        Category saved = categoryRepository.save(category);
+        cacheInvalidationBus.publish(CacheInvalidationEvent.categorySaved(saved.getId()));
     }
 
     public void updateCategory(Category category) {
         Category existingCategory = categoryRepository.findById(category.getId())
                 .orElseThrow(() -> new RuntimeException("Category not found"));
         existingCategory.setName(category.getName());
-        categoryRepository.save(existingCategory);
+        Category saved = categoryRepository.save(existingCategory);
+        cacheInvalidationBus.publish(CacheInvalidationEvent.categorySaved(saved.getId()));
     }
 
     /**
@@ -56,6 +74,7 @@ public class CategoryService {
     @Deprecated
     public void deleteCategoryById(String id) {
         categoryRepository.deleteById(id);
+        cacheInvalidationBus.publish(CacheInvalidationEvent.categoryDeleted(id));
     }
 
     /**
@@ -67,25 +86,25 @@ public class CategoryService {
      */
     @Transactional
     public long deleteCategoryWithCascade(String id) {
-        // First, get all book IDs in this category to clean up carts and wishlists
-        List<Book> booksInCategory = bookRepository.findByCategoryId(id);
-        List<String> bookIds = booksInCategory.stream()
-                .map(Book::getId)
-                .collect(Collectors.toList());
+        // First, get all book IDs in this category to clean up carts and wishlists (IDs only)
+        List<String> bookIds = bookService.getBookIdsByCategoryId(id);
 
         // Remove these books from all user carts and wishlists
         if (!bookIds.isEmpty()) {
             userCartService.removeBooksFromAllCarts(bookIds);
-            for (String bookId : bookIds) {
-                wishlistRepository.deleteByBookId(bookId);
-            }
+            wishlistRepository.deleteByBookIdIn(bookIds);
         }
 
         // Delete all books in this category
         long deletedBooks = bookRepository.deleteByCategoryId(id);
+        deletedBookLog.record(bookIds);
 
         // Then delete the category itself
         categoryRepository.deleteById(id);
+        if (!bookIds.isEmpty()) {
+            cacheInvalidationBus.publish(CacheInvalidationEvent.booksDeleted(bookIds));
+        }
+        cacheInvalidationBus.publish(CacheInvalidationEvent.categoryDeleted(id));
 
         return deletedBooks;
     }
@@ -98,4 +117,11 @@ public class CategoryService {
     public long countBooksInCategory(String categoryId) {
         return bookRepository.countByCategoryId(categoryId);
     }
+
+    /**
+     * Get category cache hit/miss statistics.
+     */
+    public Map<String, Object> getCacheStats() {
+        return categoryCache.getStats();
+    }
 }
@@ -0,0 +1,67 @@
+package trantantai.trantantai.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+import trantantai.trantantai.entities.DeletedBook;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Log of deleted book IDs (deleted_books), written by every book delete path and read by
+ * incremental exports. Entries are kept for RETENTION_DAYS (TTL index on deletedAt).
+ */
+@Component
+public class DeletedBookLog {
+
+    // Must match the expireAfter of DeletedBook.deletedAt
+    public static final int RETENTION_DAYS = 90;
+
+    private final MongoTemplate mongoTemplate;
+
+    @Autowired
+    public DeletedBookLog(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * Record that these books were deleted now (one unordered bulk of upserts).
+     */
+    public void record(Collection<String> bookIds) {
+        if (bookIds.isEmpty()) {
+            return;
+        }
+        Date now = new Date();
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, DeletedBook.class);
+        for (String bookId : bookIds) {
+            bulk.upsert(new Query(Criteria.where("_id").is(bookId)), new Update().set("deletedAt", now));
+        }
+        bulk.execute();
+    }
+
+    /**
+     * Tombstones recorded at or after {@code since}, oldest first (served by deletedAt_id_idx).
+     * The caller must close the stream.
+     */
+    public Stream<DeletedBook> streamSince(Date since, int batchSize) {
+        Query query = new Query(Criteria.where("deletedAt").gte(since))
+                .with(Sort.by("deletedAt").and(Sort.by("_id")));
+        query.cursorBatchSize(batchSize);
+        return mongoTemplate.stream(query, DeletedBook.class);
+    }
+
+    /**
+     * Oldest instant for which the log is still complete.
+     */
+    public Date oldestComplete() {
+        return new Date(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(RETENTION_DAYS));
+    }
+}
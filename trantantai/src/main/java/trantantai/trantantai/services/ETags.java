@@ -0,0 +1,33 @@
+package trantantai.trantantai.services;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Builds strong HTTP entity tags from the values a response depends on.
+ */
+public final class ETags {
+
+    private ETags() {
+    }
+
+    /**
+     * Quoted, strong ETag derived from the given parts (null parts are allowed).
+     */
+    public static String strong(Object... parts) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        for (Object part : parts) {
+            digest.update(String.valueOf(part).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+        }
+        byte[] hash = digest.digest();
+        return "\"" + HexFormat.of().formatHex(hash, 0, 16) + "\"";
+    }
+}
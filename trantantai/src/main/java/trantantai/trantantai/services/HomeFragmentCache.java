@@ -0,0 +1,129 @@
+package trantantai.trantantai.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.Context;
+import trantantai.trantantai.entities.Book;
+import trantantai.trantantai.repositories.IBookRepository;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * Cache of rendered storefront HTML fragments (featured books grid and category menu).
+ * Fragments are rendered from templates/home/fragments.html once per catalog version and
+ * served from memory until a book or category changes.
+ *
+ * The fragments contain no user- or session-specific markup, so one copy serves every visitor.
+ */
+@Component
+public class HomeFragmentCache {
+
+    private static final Logger logger = Logger.getLogger(HomeFragmentCache.class.getName());
+
+    private static final String TEMPLATE = "home/fragments";
+    private static final int FEATURED_BOOKS = 8;
+    private static final Locale LOCALE = Locale.forLanguageTag("vi-VN");
+
+    private final ITemplateEngine templateEngine;
+    private final IBookRepository bookRepository;
+    private final CategoryCache categoryCache;
+
+    // Bumped on every catalog change; a snapshot is valid only for the version it was rendered at
+    private final AtomicLong catalogVersion = new AtomicLong();
+    private volatile Snapshot snapshot;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    @Autowired
+    public HomeFragmentCache(ITemplateEngine templateEngine, IBookRepository bookRepository,
+                             CategoryCache categoryCache) {
+        this.templateEngine = templateEngine;
+        this.bookRepository = bookRepository;
+        this.categoryCache = categoryCache;
+    }
+
+    /**
+     * Rendered featured-books grid (empty string when there are no books).
+     */
+    public String getFeaturedBooksHtml() {
+        return current().featuredBooksHtml;
+    }
+
+    /**
+     * Rendered category menu items for the header dropdown.
+     */
+    public String getCategoryMenuHtml() {
+        return current().categoryMenuHtml;
+    }
+
+    /**
+     * Drop the rendered fragments (a book or category changed).
+     */
+    public void invalidate() {
+        catalogVersion.incrementAndGet();
+        invalidations.incrementAndGet();
+    }
+
+    public Map<String, Object> getStats() {
+        Snapshot current = snapshot;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("catalogVersion", catalogVersion.get());
+        stats.put("cached", current != null && current.version == catalogVersion.get());
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        stats.put("invalidations", invalidations.get());
+        return stats;
+    }
+
+    private Snapshot current() {
+        long version = catalogVersion.get();
+        Snapshot cached = snapshot;
+        if (cached != null && cached.version == version) {
+            hits.incrementAndGet();
+            return cached;
+        }
+
+        misses.incrementAndGet();
+        Snapshot rendered = render(version);
+        // Do not publish if the catalog changed while rendering; the next request renders again
+        if (catalogVersion.get() == version) {
+            snapshot = rendered;
+        }
+        return rendered;
+    }
+
+    private Snapshot render(long version) {
+        List<Book> featuredBooks = bookRepository.findAll(
+                PageRequest.of(0, FEATURED_BOOKS, Sort.by("title"))).getContent();
+        for (Book book : featuredBooks) {
+            if (book.getCategoryId() != null) {
+                categoryCache.get(book.getCategoryId()).ifPresent(book::setCategory);
+            }
+        }
+
+        Context context = new Context(LOCALE);
+        context.setVariable("featuredBooks", featuredBooks);
+        context.setVariable("categories", categoryCache.getAll());
+
+        String featuredHtml = featuredBooks.isEmpty() ? ""
+                : templateEngine.process(TEMPLATE, Set.of("featured-books"), context);
+        String categoryHtml = templateEngine.process(TEMPLATE, Set.of("category-menu"), context);
+
+        logger.fine("Rendered home fragments for catalog version " + version);
+        return new Snapshot(version, featuredHtml, categoryHtml);
+    }
+
+    private record Snapshot(long version, String featuredBooksHtml, String categoryMenuHtml) {
+    }
+}
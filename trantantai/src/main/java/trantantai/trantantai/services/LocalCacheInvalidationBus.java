@@ -0,0 +1,50 @@
+package trantantai.trantantai.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * In-JVM invalidation bus for single-node deployments: events go straight to the local listeners.
+ */
+@Component
+@ConditionalOnProperty(name = "cache.invalidation.bus", havingValue = "local", matchIfMissing = true)
+public class LocalCacheInvalidationBus implements CacheInvalidationBus {
+
+    private static final Logger logger = Logger.getLogger(LocalCacheInvalidationBus.class.getName());
+
+    private final List<CacheInvalidationListener> listeners;
+    private final AtomicLong published = new AtomicLong();
+
+    @Autowired
+    public LocalCacheInvalidationBus(List<CacheInvalidationListener> listeners) {
+        this.listeners = listeners;
+    }
+
+    @Override
+    public void publish(CacheInvalidationEvent event) {
+        published.incrementAndGet();
+        for (CacheInvalidationListener listener : listeners) {
+            try {
+                listener.onInvalidation(event);
+            } catch (RuntimeException e) {
+                logger.log(Level.WARNING, "Cache invalidation listener failed for " + event.kind(), e);
+            }
+        }
+    }
+
+    @Override
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("type", "local");
+        stats.put("published", published.get());
+        return stats;
+    }
+}
@@ -0,0 +1,208 @@
+package trantantai.trantantai.services;
+
+import com.mongodb.CursorType;
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.CollectionOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Invalidation bus shared by all app nodes through a capped Mongo collection.
+ * Each node appends its events to the collection and follows it with a tailable-await cursor,
+ * so a write on any node reaches the other nodes' caches as soon as the insert is visible.
+ *
+ * The collection is not a durable log: when a node's cursor is lost it may have missed events,
+ * so after reconnecting it rebuilds all catalog caches ({@link CacheInvalidationEvent.Kind#ALL}).
+ */
+@Component
+@ConditionalOnProperty(name = "cache.invalidation.bus", havingValue = "mongo")
+public class MongoCacheInvalidationBus implements CacheInvalidationBus {
+
+    private static final Logger logger = Logger.getLogger(MongoCacheInvalidationBus.class.getName());
+
+    private static final String COLLECTION = "cache_invalidations";
+    private static final long CAPPED_SIZE_BYTES = 4L * 1024 * 1024;
+    private static final long CAPPED_MAX_DOCUMENTS = 10_000;
+    private static final long AWAIT_MILLIS = 1_000;
+    private static final long RETRY_DELAY_MILLIS = 2_000;
+
+    private final MongoTemplate mongoTemplate;
+    private final List<CacheInvalidationListener> listeners;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private volatile boolean running;
+    private volatile Thread tailThread;
+
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong publishFailures = new AtomicLong();
+    private final AtomicLong reconnects = new AtomicLong();
+
+    @Autowired
+    public MongoCacheInvalidationBus(MongoTemplate mongoTemplate, List<CacheInvalidationListener> listeners) {
+        this.mongoTemplate = mongoTemplate;
+        this.listeners = listeners;
+    }
+
+    @Override
+    public void publish(CacheInvalidationEvent event) {
+        published.incrementAndGet();
+        deliver(event);
+        try {
+            collection().insertOne(new Document("node", nodeId)
+                    .append("kind", event.kind().name())
+                    .append("ids", event.ids())
+                    .append("at", new Date()));
+        } catch (MongoException e) {
+            // The write itself succeeded; other nodes stay stale until their next reconnect rebuild
+            publishFailures.incrementAndGet();
+            logger.log(Level.WARNING, "Could not broadcast cache invalidation " + event.kind() + ": " + e.getMessage());
+        }
+    }
+
+    @Override
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("type", "mongo");
+        stats.put("nodeId", nodeId);
+        stats.put("tailing", running && tailThread != null && tailThread.isAlive());
+        stats.put("published", published.get());
+        stats.put("received", received.get());
+        stats.put("publishFailures", publishFailures.get());
+        stats.put("reconnects", reconnects.get());
+        return stats;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!mongoTemplate.collectionExists(COLLECTION)) {
+            try {
+                mongoTemplate.createCollection(COLLECTION,
+                        CollectionOptions.empty().capped().size(CAPPED_SIZE_BYTES).maxDocuments(CAPPED_MAX_DOCUMENTS));
+            } catch (MongoException e) {
+                // Another node created it first
+                logger.fine("Capped collection " + COLLECTION + " already exists: " + e.getMessage());
+            }
+        }
+
+        running = true;
+        Thread thread = new Thread(this::tail, "cache-invalidation-tail");
+        thread.setDaemon(true);
+        tailThread = thread;
+        thread.start();
+        logger.info("Cache invalidation bus started on node " + nodeId);
+    }
+
+    @EventListener(ContextClosedEvent.class)
+    public void stop() {
+        running = false;
+        Thread thread = tailThread;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    private void tail() {
+        boolean resumed = false;
+        while (running) {
+            try {
+                // Each (re)open appends a marker and skips everything before it: natural order is
+                // insertion order, so this positions the cursor exactly at "now" without relying on
+                // ObjectId ordering across nodes. It also keeps the collection non-empty, since a
+                // tailable cursor on an empty capped collection dies immediately.
+                ObjectId marker = new ObjectId();
+                collection().insertOne(new Document("_id", marker).append("node", nodeId).append("at", new Date()));
+
+                try (MongoCursor<Document> cursor = collection().find()
+                        .cursorType(CursorType.TailableAwait)
+                        .maxAwaitTime(AWAIT_MILLIS, TimeUnit.MILLISECONDS)
+                        .iterator()) {
+                    if (resumed) {
+                        // Events may have been missed while the cursor was down
+                        deliver(CacheInvalidationEvent.all());
+                    }
+                    boolean caughtUp = false;
+                    while (running) {
+                        Document doc = cursor.tryNext();
+                        if (doc == null) {
+                            if (cursor.getServerCursor() == null) {
+                                break;
+                            }
+                            continue;
+                        }
+                        if (!caughtUp) {
+                            caughtUp = marker.equals(doc.getObjectId("_id"));
+                            continue;
+                        }
+                        receive(doc);
+                    }
+                }
+            } catch (MongoException e) {
+                if (running) {
+                    logger.log(Level.WARNING, "Cache invalidation cursor lost: " + e.getMessage());
+                }
+            }
+
+            if (running) {
+                resumed = true;
+                reconnects.incrementAndGet();
+                try {
+                    Thread.sleep(RETRY_DELAY_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void receive(Document doc) {
+        String kind = doc.getString("kind");
+        // Markers carry no kind; our own events were already delivered by publish()
+        if (kind == null || nodeId.equals(doc.getString("node"))) {
+            return;
+        }
+        CacheInvalidationEvent.Kind eventKind;
+        try {
+            eventKind = CacheInvalidationEvent.Kind.valueOf(kind);
+        } catch (IllegalArgumentException e) {
+            logger.warning("Ignoring unknown cache invalidation kind: " + kind);
+            return;
+        }
+        received.incrementAndGet();
+        deliver(new CacheInvalidationEvent(eventKind, doc.getList("ids", String.class)));
+    }
+
+    private void deliver(CacheInvalidationEvent event) {
+        for (CacheInvalidationListener listener : listeners) {
+            try {
+                listener.onInvalidation(event);
+            } catch (RuntimeException e) {
+                logger.log(Level.WARNING, "Cache invalidation listener failed for " + event.kind(), e);
+            }
+        }
+    }
+
+    private MongoCollection<Document> collection() {
+        return mongoTemplate.getCollection(COLLECTION);
+    }
+}
@@ -0,0 +1,373 @@
+package trantantai.trantantai.services;
+
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.ReplaceOptions;
+import org.bson.BsonBinarySubType;
+import org.bson.Document;
+import org.bson.types.Binary;
+import org.springframework.core.serializer.support.DeserializingConverter;
+import org.springframework.core.serializer.support.SerializingConverter;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.session.MapSession;
+import org.springframework.session.Session;
+import org.springframework.session.SessionRepository;
+import trantantai.trantantai.daos.Cart;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Spring Session repository that keeps HTTP sessions in the http_sessions collection,
+ * so any app node can serve any request and losing a node neither logs users out nor empties carts.
+ *
+ * Each attribute is its own field under attrs, and only attributes that were set or removed during
+ * the request, and whose stored form actually changed, are written back. Strings, numbers and booleans
+ * are stored as plain BSON values, the cart with {@link CartSessionCodec}, and anything else
+ * (security context, saved request, CSRF token) with Java serialization.
+ * A TTL index on expireAt removes abandoned sessions.
+ */
+public class MongoSessionRepository implements SessionRepository<MongoSessionRepository.MongoSession> {
+
+    private static final Logger logger = Logger.getLogger(MongoSessionRepository.class.getName());
+
+    static final String COLLECTION = "http_sessions";
+    private static final String ATTRS = "attrs";
+
+    private static final byte SUBTYPE_SERIALIZED = BsonBinarySubType.BINARY.getValue();
+    private static final byte SUBTYPE_CART = BsonBinarySubType.USER_DEFINED.getValue();
+
+    // A request that changes nothing only refreshes the stored access time this often,
+    // so sessions may expire up to this much early in exchange for far fewer writes
+    private static final Duration ACCESS_WRITE_INTERVAL = Duration.ofMinutes(1);
+
+    private final MongoTemplate mongoTemplate;
+    private final Duration defaultMaxInactiveInterval;
+
+    private final SerializingConverter serializer = new SerializingConverter();
+    private final DeserializingConverter deserializer =
+            new DeserializingConverter(MongoSessionRepository.class.getClassLoader());
+
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong inserts = new AtomicLong();
+    private final AtomicLong updates = new AtomicLong();
+    private final AtomicLong skippedSaves = new AtomicLong();
+    private final AtomicLong attributeWrites = new AtomicLong();
+    private final AtomicLong bytesWritten = new AtomicLong();
+
+    public MongoSessionRepository(MongoTemplate mongoTemplate, Duration defaultMaxInactiveInterval) {
+        this.mongoTemplate = mongoTemplate;
+        this.defaultMaxInactiveInterval = defaultMaxInactiveInterval;
+    }
+
+    /**
+     * Create the TTL index on expireAt (idempotent).
+     */
+    public void createIndexes() {
+        collection().createIndex(Indexes.ascending("expireAt"),
+                new IndexOptions().name("expireAt_ttl").expireAfter(0L, TimeUnit.SECONDS));
+    }
+
+    @Override
+    public MongoSession createSession() {
+        MapSession delegate = new MapSession();
+        delegate.setMaxInactiveInterval(defaultMaxInactiveInterval);
+        return new MongoSession(delegate, null);
+    }
+
+    @Override
+    public void save(MongoSession session) {
+        if (session.persistedId == null || !session.getId().equals(session.persistedId)) {
+            // New session, or the ID changed at login: write it whole under the new ID
+            insert(session);
+            return;
+        }
+
+        Document set = new Document();
+        Document unset = new Document();
+        for (String name : session.changed) {
+            Object value = session.delegate.getAttribute(name);
+            String field = ATTRS + "." + escape(name);
+            if (value == null) {
+                if (session.persisted.remove(name) != null) {
+                    unset.append(field, "");
+                }
+            } else {
+                Object encoded = encode(value);
+                if (!Objects.equals(encoded, session.persisted.get(name))) {
+                    set.append(field, encoded);
+                    session.persisted.put(name, encoded);
+                }
+            }
+        }
+        session.changed.clear();
+
+        int changedAttributes = set.size() + unset.size();
+        long attributeBytes = encodedSize(set);
+        Instant lastAccessed = session.getLastAccessedTime();
+        boolean timesChanged = session.maxInactiveChanged
+                || Duration.between(session.persistedAccessTime, lastAccessed).compareTo(ACCESS_WRITE_INTERVAL) >= 0;
+        if (changedAttributes == 0 && !timesChanged) {
+            skippedSaves.incrementAndGet();
+            return;
+        }
+
+        set.append("lastAccessed", Date.from(lastAccessed))
+                .append("maxInactiveSeconds", session.getMaxInactiveInterval().toSeconds())
+                .append("expireAt", expireAt(session));
+        Document update = new Document("$set", set);
+        if (!unset.isEmpty()) {
+            update.append("$unset", unset);
+        }
+
+        long matched = collection().updateOne(Filters.eq("_id", session.getId()), update).getMatchedCount();
+        if (matched == 0) {
+            // Removed by the TTL monitor or another node's invalidate in the meantime
+            insert(session);
+            return;
+        }
+        updates.incrementAndGet();
+        attributeWrites.addAndGet(changedAttributes);
+        bytesWritten.addAndGet(attributeBytes);
+        session.persistedAccessTime = lastAccessed;
+        session.maxInactiveChanged = false;
+    }
+
+    @Override
+    public MongoSession findById(String id) {
+        Document doc = collection().find(Filters.eq("_id", id)).first();
+        if (doc == null) {
+            return null;
+        }
+        loads.incrementAndGet();
+
+        MapSession delegate = new MapSession(id);
+        delegate.setCreationTime(doc.getDate("created").toInstant());
+        delegate.setLastAccessedTime(doc.getDate("lastAccessed").toInstant());
+        delegate.setMaxInactiveInterval(Duration.ofSeconds(((Number) doc.get("maxInactiveSeconds")).longValue()));
+        MongoSession session = new MongoSession(delegate, id);
+        if (session.isExpired()) {
+            deleteById(id);
+            return null;
+        }
+
+        Document attrs = doc.get(ATTRS, Document.class);
+        if (attrs != null) {
+            for (Map.Entry<String, Object> entry : attrs.entrySet()) {
+                String name = unescape(entry.getKey());
+                try {
+                    delegate.setAttribute(name, decode(entry.getValue()));
+                    session.persisted.put(name, entry.getValue());
+                } catch (RuntimeException e) {
+                    // e.g. a class changed between deployments; drop the attribute rather than the session
+                    logger.log(Level.WARNING, "Dropping unreadable session attribute " + name + ": " + e.getMessage());
+                    session.persisted.put(name, entry.getValue());
+                    session.changed.add(name);
+                }
+            }
+        }
+        return session;
+    }
+
+    @Override
+    public void deleteById(String id) {
+        try {
+            collection().deleteOne(Filters.eq("_id", id));
+        } catch (MongoException e) {
+            // The TTL index removes it eventually
+            logger.log(Level.WARNING, "Could not delete session: " + e.getMessage());
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("loads", loads.get());
+        stats.put("inserts", inserts.get());
+        stats.put("updates", updates.get());
+        stats.put("skippedSaves", skippedSaves.get());
+        stats.put("attributeWrites", attributeWrites.get());
+        stats.put("attributeBytesWritten", bytesWritten.get());
+        return stats;
+    }
+
+    private void insert(MongoSession session) {
+        Document attrs = new Document();
+        session.persisted.clear();
+        for (String name : session.delegate.getAttributeNames()) {
+            Object encoded = encode(session.delegate.getAttribute(name));
+            attrs.append(escape(name), encoded);
+            session.persisted.put(name, encoded);
+        }
+
+        Document doc = new Document("_id", session.getId())
+                .append("created", Date.from(session.getCreationTime()))
+                .append("lastAccessed", Date.from(session.getLastAccessedTime()))
+                .append("maxInactiveSeconds", session.getMaxInactiveInterval().toSeconds())
+                .append("expireAt", expireAt(session))
+                .append(ATTRS, attrs);
+        collection().replaceOne(Filters.eq("_id", session.getId()), doc, new ReplaceOptions().upsert(true));
+
+        if (session.persistedId != null && !session.persistedId.equals(session.getId())) {
+            deleteById(session.persistedId);
+        }
+        inserts.incrementAndGet();
+        attributeWrites.addAndGet(attrs.size());
+        bytesWritten.addAndGet(encodedSize(attrs));
+        session.persistedId = session.getId();
+        session.persistedAccessTime = session.getLastAccessedTime();
+        session.maxInactiveChanged = false;
+        session.changed.clear();
+    }
+
+    private Object encode(Object value) {
+        if (value instanceof String || value instanceof Integer || value instanceof Long
+                || value instanceof Double || value instanceof Boolean) {
+            return value;
+        }
+        if (value instanceof Cart cart) {
+            return new Binary(SUBTYPE_CART, CartSessionCodec.encode(cart));
+        }
+        return new Binary(SUBTYPE_SERIALIZED, serializer.convert(value));
+    }
+
+    private Object decode(Object stored) {
+        if (stored instanceof Binary binary) {
+            return binary.getType() == SUBTYPE_CART
+                    ? CartSessionCodec.decode(binary.getData())
+                    : deserializer.convert(binary.getData());
+        }
+        return stored;
+    }
+
+    private static Date expireAt(Session session) {
+        return Date.from(session.getLastAccessedTime().plus(session.getMaxInactiveInterval()));
+    }
+
+    private static long encodedSize(Document values) {
+        long size = 0;
+        for (Object value : values.values()) {
+            if (value instanceof Binary binary) {
+                size += binary.length();
+            } else if (value instanceof String text) {
+                size += text.length();
+            } else {
+                size += 8;
+            }
+        }
+        return size;
+    }
+
+    // Attribute names are field names under attrs: '.' and '$' are not allowed there
+    private static String escape(String name) {
+        return name.replace("%", "%25").replace(".", "%2E").replace("$", "%24");
+    }
+
+    private static String unescape(String field) {
+        return field.replace("%24", "$").replace("%2E", ".").replace("%25", "%");
+    }
+
+    private MongoCollection<Document> collection() {
+        return mongoTemplate.getCollection(COLLECTION);
+    }
+
+    /**
+     * Session backed by a {@link MapSession} that remembers which attributes changed since it was loaded.
+     */
+    public static final class MongoSession implements Session {
+
+        private final MapSession delegate;
+
+        // ID the document is stored under (null until first saved)
+        private String persistedId;
+        private Instant persistedAccessTime;
+        private boolean maxInactiveChanged;
+
+        // Attribute name -> stored form as last read or written
+        private final Map<String, Object> persisted = new HashMap<>();
+        // Names set or removed since the last save
+        private final Set<String> changed = new HashSet<>();
+
+        private MongoSession(MapSession delegate, String persistedId) {
+            this.delegate = delegate;
+            this.persistedId = persistedId;
+            this.persistedAccessTime = delegate.getLastAccessedTime();
+        }
+
+        @Override
+        public String getId() {
+            return delegate.getId();
+        }
+
+        @Override
+        public String changeSessionId() {
+            return delegate.changeSessionId();
+        }
+
+        @Override
+        public <T> T getAttribute(String attributeName) {
+            return delegate.getAttribute(attributeName);
+        }
+
+        @Override
+        public Set<String> getAttributeNames() {
+            return delegate.getAttributeNames();
+        }
+
+        @Override
+        public void setAttribute(String attributeName, Object attributeValue) {
+            delegate.setAttribute(attributeName, attributeValue);
+            changed.add(attributeName);
+        }
+
+        @Override
+        public void removeAttribute(String attributeName) {
+            delegate.removeAttribute(attributeName);
+            changed.add(attributeName);
+        }
+
+        @Override
+        public Instant getCreationTime() {
+            return delegate.getCreationTime();
+        }
+
+        @Override
+        public void setLastAccessedTime(Instant lastAccessedTime) {
+            delegate.setLastAccessedTime(lastAccessedTime);
+        }
+
+        @Override
+        public Instant getLastAccessedTime() {
+            return delegate.getLastAccessedTime();
+        }
+
+        @Override
+        public void setMaxInactiveInterval(Duration interval) {
+            delegate.setMaxInactiveInterval(interval);
+            maxInactiveChanged = true;
+        }
+
+        @Override
+        public Duration getMaxInactiveInterval() {
+            return delegate.getMaxInactiveInterval();
+        }
+
+        @Override
+        public boolean isExpired() {
+            return delegate.isExpired();
+        }
+    }
+}
@@ -12,7 +12,6 @@ import trantantai.trantantai.entities.Invoice;
 import trantantai.trantantai.entities.ItemInvoice;
 import trantantai.trantantai.repositories.IInvoiceRepository;
 
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -26,11 +25,14 @@ public class OrderService {
 
     private final IInvoiceRepository invoiceRepository;
     private final BookService bookService;
+    private final OrderStatisticsCache orderStatisticsCache;
 
     @Autowired
-    public OrderService(IInvoiceRepository invoiceRepository, BookService bookService) {
+    public OrderService(IInvoiceRepository invoiceRepository, BookService bookService,
+                        OrderStatisticsCache orderStatisticsCache) {
         this.invoiceRepository = invoiceRepository;
         this.bookService = bookService;
+        this.orderStatisticsCache = orderStatisticsCache;
     }
 
     /**
@@ -100,8 +102,10 @@ public class OrderService {
         Invoice invoice = invoiceRepository.findById(orderId)
                 .orElseThrow(() -> new RuntimeException("Đơn hàng không tồn tại: " + orderId));
         
+        OrderStatus previousStatus = invoice.getOrderStatus();
         invoice.setOrderStatus(newStatus);
         Invoice saved = invoiceRepository.save(invoice);
+        orderStatisticsCache.recordTransition(previousStatus, newStatus);
         
         logger.info("Updated order " + orderId + " status to " + newStatus);
         return saved;
@@ -132,39 +136,21 @@ public class OrderService {
             }
         }
         
+        OrderStatus previousStatus = invoice.getOrderStatus();
         invoice.setOrderStatus(OrderStatus.CANCELLED);
         Invoice saved = invoiceRepository.save(invoice);
+        orderStatisticsCache.recordTransition(previousStatus, OrderStatus.CANCELLED);
         
         logger.info("Cancelled order: " + orderId);
         return saved;
     }
 
     /**
-     * Get order statistics by status.
+     * Get order statistics by status (total, processing, shipped, delivered, cancelled).
+     * Served from {@link OrderStatisticsCache}: no collection count per call.
      */
     public Map<String, Long> getOrderStatistics() {
-        Map<String, Long> stats = new HashMap<>();
-
-        long total = invoiceRepository.count();
-        long processing = invoiceRepository.countByOrderStatus(OrderStatus.PROCESSING);
-        long shipped = invoiceRepository.countByOrderStatus(OrderStatus.SHIPPED);
-        long delivered = invoiceRepository.countByOrderStatus(OrderStatus.DELIVERED);
-        long cancelled = invoiceRepository.countByOrderStatus(OrderStatus.CANCELLED);
-
-        logger.info("=== Order Statistics ===");
-        logger.info("Total: " + total);
-        logger.info("Processing: " + processing);
-        logger.info("Shipped: " + shipped);
-        logger.info("Delivered: " + delivered);
-        logger.info("Cancelled: " + cancelled);
-
-        stats.put("total", total);
-        stats.put("processing", processing);
-        stats.put("shipped", shipped);
-        stats.put("delivered", delivered);
-        stats.put("cancelled", cancelled);
-
-        return stats;
+        return orderStatisticsCache.get();
     }
 
     /**
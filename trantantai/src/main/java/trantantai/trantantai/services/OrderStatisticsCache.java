@@ -0,0 +1,120 @@
+package trantantai.trantantai.services;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import trantantai.trantantai.constants.OrderStatus;
+import trantantai.trantantai.entities.Invoice;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.logging.Logger;
+
+/**
+ * Order counts per status for the admin dashboard and order list.
+ * Loaded with one $group on orderStatus, then kept current in memory by the code paths that
+ * create orders or change their status, and periodically reconciled against the collection
+ * to pick up writes made elsewhere (seeders, other app nodes).
+ */
+@Component
+public class OrderStatisticsCache {
+
+    private static final Logger logger = Logger.getLogger(OrderStatisticsCache.class.getName());
+
+    private static final OrderStatus[] STATUSES = OrderStatus.values();
+
+    private final MongoTemplate mongoTemplate;
+
+    private final AtomicLongArray counts = new AtomicLongArray(STATUSES.length);
+    private final AtomicLong total = new AtomicLong();
+    private volatile boolean loaded;
+
+    @Autowired
+    public OrderStatisticsCache(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * Counts keyed "total" and each status in lower case (processing, shipped, delivered, cancelled).
+     */
+    public Map<String, Long> get() {
+        if (!loaded) {
+            reconcile();
+        }
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("total", total.get());
+        for (OrderStatus status : STATUSES) {
+            stats.put(status.name().toLowerCase(), counts.get(status.ordinal()));
+        }
+        return stats;
+    }
+
+    /**
+     * A new order was stored.
+     */
+    public void recordCreated(OrderStatus status) {
+        total.incrementAndGet();
+        if (status != null) {
+            counts.incrementAndGet(status.ordinal());
+        }
+    }
+
+    /**
+     * An order moved from one status to another.
+     */
+    public void recordTransition(OrderStatus from, OrderStatus to) {
+        if (from == to) {
+            return;
+        }
+        if (from != null) {
+            counts.decrementAndGet(from.ordinal());
+        }
+        if (to != null) {
+            counts.incrementAndGet(to.ordinal());
+        }
+    }
+
+    /**
+     * Reload all counts with one aggregation. Changes recorded while it runs may be lost
+     * until the next reconciliation.
+     */
+    @Scheduled(fixedDelayString = "${orders.stats.reconcile-interval-ms:300000}")
+    public synchronized void reconcile() {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.group("orderStatus").count().as("count"));
+        AggregationResults<Document> results = mongoTemplate.aggregate(aggregation, Invoice.class, Document.class);
+
+        long[] fresh = new long[STATUSES.length];
+        long freshTotal = 0;
+        for (Document doc : results.getMappedResults()) {
+            long count = ((Number) doc.get("count")).longValue();
+            // Orders without a (known) status count towards the total only, as with count()
+            freshTotal += count;
+            Object status = doc.get("_id");
+            if (status != null) {
+                for (OrderStatus candidate : STATUSES) {
+                    if (candidate.name().equals(status.toString())) {
+                        fresh[candidate.ordinal()] = count;
+                    }
+                }
+            }
+        }
+
+        boolean drifted = loaded && total.get() != freshTotal;
+        for (int i = 0; i < fresh.length; i++) {
+            drifted |= loaded && counts.get(i) != fresh[i];
+            counts.set(i, fresh[i]);
+        }
+        total.set(freshTotal);
+        if (drifted) {
+            logger.info("Order statistics reconciled: " + freshTotal + " orders");
+        }
+        loaded = true;
+    }
+}
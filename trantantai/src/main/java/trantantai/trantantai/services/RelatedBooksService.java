@@ -0,0 +1,149 @@
+package trantantai.trantantai.services;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+import trantantai.trantantai.constants.OrderStatus;
+import trantantai.trantantai.entities.Book;
+import trantantai.trantantai.entities.Invoice;
+
+import java.util.*;
+import java.util.logging.Logger;
+
+/**
+ * Service for "related books" on the book detail page.
+ * Blends books frequently bought together with the current book (from invoices)
+ * with books from the same category, and caches the result per book
+ * (least recently used entries are evicted beyond MAX_CACHED_BOOKS).
+ */
+@Service
+public class RelatedBooksService {
+
+    private static final Logger logger = Logger.getLogger(RelatedBooksService.class.getName());
+
+    private static final int MAX_CACHED_BOOKS = 5_000;
+    private static final long CACHE_TTL_MILLIS = 10 * 60 * 1000L;
+
+    private final MongoTemplate mongoTemplate;
+    private final CategoryCache categoryCache;
+
+    // bookId -> related book IDs, best first; access-ordered, so the eldest entry is the least recently used
+    private final Map<String, CachedRelated> cache = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CachedRelated> eldest) {
+                    return size() > MAX_CACHED_BOOKS;
+                }
+            });
+
+    @Autowired
+    public RelatedBooksService(MongoTemplate mongoTemplate, CategoryCache categoryCache) {
+        this.mongoTemplate = mongoTemplate;
+        this.categoryCache = categoryCache;
+    }
+
+    /**
+     * Get up to {@code limit} books related to the given book, as summaries with category populated.
+     */
+    public List<Book> getRelatedBooks(Book book, int limit) {
+        if (book == null || book.getId() == null || limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        CachedRelated cached = cache.get(book.getId());
+        List<String> relatedIds;
+        if (cached != null && cached.limit >= limit && !cached.isExpired()) {
+            relatedIds = cached.ids;
+        } else {
+            relatedIds = computeRelatedIds(book, limit);
+            cache.put(book.getId(), new CachedRelated(relatedIds, limit, System.currentTimeMillis()));
+        }
+
+        List<String> pageIds = relatedIds.subList(0, Math.min(limit, relatedIds.size()));
+        if (pageIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        // Load summaries in one projected query, then restore ranking order
+        Map<String, Book> bookMap = new HashMap<>();
+        for (Book related : mongoTemplate.find(BookService.summaryQuery(Criteria.where("_id").in(pageIds)), Book.class)) {
+            bookMap.put(related.getId(), related);
+        }
+        List<Book> result = new ArrayList<>(pageIds.size());
+        for (String id : pageIds) {
+            Book related = bookMap.get(id);
+            if (related != null) {
+                if (related.getCategoryId() != null) {
+                    categoryCache.get(related.getCategoryId()).ifPresent(related::setCategory);
+                }
+                result.add(related);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Drop all cached related books (catalog changed).
+     */
+    public void invalidateAll() {
+        cache.clear();
+    }
+
+    private List<String> computeRelatedIds(Book book, int limit) {
+        LinkedHashSet<String> ids = new LinkedHashSet<>(coPurchasedBookIds(book.getId(), limit));
+
+        if (ids.size() < limit && book.getCategoryId() != null) {
+            // Served by the (categoryId, title) index, reading only _id
+            Query query = new Query(Criteria.where("categoryId").is(book.getCategoryId())
+                    .and("_id").ne(book.getId()))
+                    .with(Sort.by("title"))
+                    .limit(limit + ids.size());
+            query.fields().include("_id");
+            for (Book sameCategory : mongoTemplate.find(query, Book.class)) {
+                ids.add(sameCategory.getId());
+                if (ids.size() >= limit) {
+                    break;
+                }
+            }
+        }
+
+        ids.remove(book.getId());
+        return new ArrayList<>(ids);
+    }
+
+    // Books that appear most often in the same (non-cancelled) orders as the given book
+    private List<String> coPurchasedBookIds(String bookId, int limit) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("itemInvoices.bookId").is(bookId)
+                        .and("orderStatus").ne(OrderStatus.CANCELLED)),
+                Aggregation.unwind("itemInvoices"),
+                Aggregation.match(Criteria.where("itemInvoices.bookId").ne(bookId)),
+                Aggregation.group("itemInvoices.bookId").count().as("orders"),
+                Aggregation.sort(Sort.by(Sort.Direction.DESC, "orders").and(Sort.by("_id"))),
+                Aggregation.limit(limit)
+        );
+
+        AggregationResults<Document> results = mongoTemplate.aggregate(aggregation, Invoice.class, Document.class);
+        List<String> ids = new ArrayList<>();
+        for (Document doc : results.getMappedResults()) {
+            Object id = doc.get("_id");
+            if (id != null) {
+                ids.add(id.toString());
+            }
+        }
+        logger.fine("Found " + ids.size() + " co-purchased books for " + bookId);
+        return ids;
+    }
+
+    private record CachedRelated(List<String> ids, int limit, long computedAt) {
+        boolean isExpired() {
+            return System.currentTimeMillis() - computedAt > CACHE_TTL_MILLIS;
+        }
+    }
+}
@@ -4,7 +4,12 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
+import trantantai.trantantai.entities.Book;
 import trantantai.trantantai.entities.Review;
 import trantantai.trantantai.entities.User;
 import trantantai.trantantai.repositories.IInvoiceRepository;
@@ -32,16 +37,19 @@ public class ReviewService {
     private final IInvoiceRepository invoiceRepository;
     private final IUserRepository userRepository;
     private final OpenAIModerationService moderationService;
+    private final MongoTemplate mongoTemplate;
 
     @Autowired
     public ReviewService(IReviewRepository reviewRepository, 
                          IInvoiceRepository invoiceRepository,
                          IUserRepository userRepository,
-                         OpenAIModerationService moderationService) {
+                         OpenAIModerationService moderationService,
+                         MongoTemplate mongoTemplate) {
         this.reviewRepository = reviewRepository;
         this.invoiceRepository = invoiceRepository;
         this.userRepository = userRepository;
         this.moderationService = moderationService;
+        this.mongoTemplate = mongoTemplate;
     }
 
     /**
@@ -123,12 +131,58 @@ public class ReviewService {
         Review review = new Review(bookId, userId, rating, sanitizedComment, username);
         review.setImageUrls(imageUrls != null ? new ArrayList<>(imageUrls) : new ArrayList<>());
         Review savedReview = reviewRepository.save(review);
+        bumpReviewRevision(bookId);
 
         logger.info("Created review for book " + bookId + " by user " + userId + " with rating " + rating + 
                    " and " + (imageUrls != null ? imageUrls.size() : 0) + " images");
         return savedReview;
     }
 
+    /**
+     * Delete a single review.
+     * @return true if the review existed
+     */
+    public boolean deleteReview(String reviewId) {
+        Optional<Review> review = reviewRepository.findById(reviewId);
+        if (review.isEmpty()) {
+            return false;
+        }
+        reviewRepository.delete(review.get());
+        bumpReviewRevision(review.get().getBookId());
+        return true;
+    }
+
+    /**
+     * Delete all reviews of a book.
+     * @return number of reviews deleted
+     */
+    public long deleteReviewsByBookId(String bookId) {
+        List<Review> reviews = reviewRepository.findByBookIdOrderByCreatedAtDesc(bookId);
+        reviewRepository.deleteAll(reviews);
+        if (!reviews.isEmpty()) {
+            bumpReviewRevision(bookId);
+        }
+        return reviews.size();
+    }
+
+    /**
+     * Strong ETag for review responses of a book, read from the book's review revision only.
+     * @param variant distinguishes responses for the same book (page, statistics, ...)
+     */
+    public String getReviewsETag(String bookId, String variant) {
+        Query query = new Query(Criteria.where("_id").is(bookId));
+        query.fields().include("reviewRevision");
+        Book book = mongoTemplate.findOne(query, Book.class);
+        Long revision = book != null ? book.getReviewRevision() : null;
+        return ETags.strong("reviews", bookId, revision, variant);
+    }
+
+    // Invalidates cached review responses of the book (see getReviewsETag)
+    private void bumpReviewRevision(String bookId) {
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(bookId)),
+                new Update().inc("reviewRevision", 1), Book.class);
+    }
+
     /**
      * Check if a user can review a book.
      * User can review if they have a DELIVERED order containing the book.
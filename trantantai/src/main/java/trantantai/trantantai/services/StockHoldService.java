@@ -0,0 +1,219 @@
+package trantantai.trantantai.services;
+
+import jakarta.servlet.http.HttpSession;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import trantantai.trantantai.entities.Book;
+import trantantai.trantantai.entities.StockHold;
+
+import java.util.*;
+import java.util.logging.Logger;
+
+/**
+ * Optional soft reservations ("holds") of stock for carts, enabled with stock.holds.enabled.
+ * Adding to the cart or opening checkout holds the copies for stock.holds.ttl-minutes;
+ * a hold is granted only if the book's quantity minus older active holds of other shoppers covers it.
+ * saveCart converts the holds into real decrements; abandoned holds expire through the TTL index.
+ *
+ * Precedence between shoppers follows hold creation order (hold _id), so when two shoppers race
+ * for the last copies the older hold wins and the newer one is rolled back. Holds are a soft
+ * guard: the conditional decrement in BookService.reserveStock remains the hard one.
+ */
+@Service
+public class StockHoldService {
+
+    private static final Logger logger = Logger.getLogger(StockHoldService.class.getName());
+
+    private static final String HOLDER_SESSION_KEY = "stockHoldOwner";
+
+    private final MongoTemplate mongoTemplate;
+    private final boolean enabled;
+    private final long ttlMillis;
+
+    @Autowired
+    public StockHoldService(MongoTemplate mongoTemplate,
+                            @Value("${stock.holds.enabled:false}") boolean enabled,
+                            @Value("${stock.holds.ttl-minutes:15}") long ttlMinutes) {
+        this.mongoTemplate = mongoTemplate;
+        this.enabled = enabled;
+        this.ttlMillis = ttlMinutes * 60 * 1000L;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Hold (or re-hold, extending the expiry) one cart line.
+     * @param quantity total quantity of the line; 0 releases the hold
+     */
+    public HoldResult hold(HttpSession session, String bookId, int quantity) {
+        if (!enabled) {
+            return new HoldResult(true, quantity);
+        }
+        if (quantity <= 0) {
+            release(session, bookId);
+            return new HoldResult(true, 0);
+        }
+        Integer available = holdAll(session, Map.of(bookId, quantity)).get(bookId);
+        return available == null ? new HoldResult(true, quantity) : new HoldResult(false, available);
+    }
+
+    /**
+     * Hold every line of a cart at once (checkout), with a fixed number of round trips.
+     * Lines that cannot be held keep their previous hold, if any.
+     * @param quantities bookId -> line quantity
+     * @return bookId -> quantity still available to this shopper, for every line that could not be held
+     */
+    public Map<String, Integer> holdAll(HttpSession session, Map<String, Integer> quantities) {
+        if (!enabled || quantities.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        String holderId = holderId(session);
+        Date now = new Date();
+        Date expiresAt = new Date(now.getTime() + ttlMillis);
+
+        // Current holds of this shopper: keep their _id (precedence) and quantity (for rollback)
+        Map<String, StockHold> previous = new HashMap<>();
+        Query own = new Query(Criteria.where("holderId").is(holderId).and("bookId").in(quantities.keySet()));
+        for (StockHold hold : mongoTemplate.find(own, StockHold.class)) {
+            previous.put(hold.getBookId(), hold);
+        }
+
+        Map<String, ObjectId> holdIds = new HashMap<>();
+        BulkOperations upserts = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, StockHold.class);
+        for (Map.Entry<String, Integer> line : quantities.entrySet()) {
+            StockHold existing = previous.get(line.getKey());
+            ObjectId holdId = existing != null ? new ObjectId(existing.getId()) : new ObjectId();
+            holdIds.put(line.getKey(), holdId);
+            upserts.upsert(
+                    new Query(Criteria.where("holderId").is(holderId).and("bookId").is(line.getKey())),
+                    new Update().set("quantity", line.getValue()).set("expiresAt", expiresAt).setOnInsert("_id", holdId));
+        }
+        upserts.execute();
+
+        Map<String, Integer> stock = findQuantities(quantities.keySet());
+        Map<String, Integer> heldBefore = heldBefore(holdIds, now);
+
+        Map<String, Integer> failures = new HashMap<>();
+        BulkOperations rollbacks = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, StockHold.class);
+        for (Map.Entry<String, Integer> line : quantities.entrySet()) {
+            String bookId = line.getKey();
+            int available = stock.getOrDefault(bookId, 0) - heldBefore.getOrDefault(bookId, 0);
+            if (line.getValue() <= available) {
+                continue;
+            }
+            failures.put(bookId, Math.max(0, available));
+            Query query = new Query(Criteria.where("_id").is(holdIds.get(bookId)));
+            StockHold existing = previous.get(bookId);
+            if (existing != null && existing.getQuantity() <= available) {
+                rollbacks.updateOne(query, new Update().set("quantity", existing.getQuantity()));
+            } else {
+                rollbacks.remove(query);
+            }
+        }
+        if (!failures.isEmpty()) {
+            rollbacks.execute();
+            logger.fine("Stock holds refused for " + failures.keySet());
+        }
+        return failures;
+    }
+
+    /**
+     * Copies of each book held by other shoppers' active holds.
+     */
+    public Map<String, Integer> getHeldByOthers(HttpSession session, Collection<String> bookIds) {
+        if (!enabled || bookIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        return sumHolds(Criteria.where("bookId").in(bookIds)
+                .and("holderId").ne(holderId(session))
+                .and("expiresAt").gt(new Date()));
+    }
+
+    /**
+     * Release the hold of one cart line.
+     */
+    public void release(HttpSession session, String bookId) {
+        if (!enabled) {
+            return;
+        }
+        mongoTemplate.remove(new Query(Criteria.where("holderId").is(holderId(session)).and("bookId").is(bookId)),
+                StockHold.class);
+    }
+
+    /**
+     * Release the holds of several cart lines at once.
+     */
+    public void release(HttpSession session, Collection<String> bookIds) {
+        if (!enabled || bookIds.isEmpty()) {
+            return;
+        }
+        mongoTemplate.remove(new Query(Criteria.where("holderId").is(holderId(session)).and("bookId").in(bookIds)),
+                StockHold.class);
+    }
+
+    /**
+     * Release every hold of this shopper (cart cleared, or holds converted into an order).
+     */
+    public void releaseAll(HttpSession session) {
+        if (!enabled) {
+            return;
+        }
+        mongoTemplate.remove(new Query(Criteria.where("holderId").is(holderId(session))), StockHold.class);
+    }
+
+    // Active holds of other shoppers that are older than this shopper's hold on the same book
+    private Map<String, Integer> heldBefore(Map<String, ObjectId> holdIds, Date now) {
+        List<Criteria> perBook = new ArrayList<>();
+        for (Map.Entry<String, ObjectId> entry : holdIds.entrySet()) {
+            perBook.add(Criteria.where("bookId").is(entry.getKey()).and("_id").lt(entry.getValue()));
+        }
+        return sumHolds(new Criteria().orOperator(perBook).and("expiresAt").gt(now));
+    }
+
+    private Map<String, Integer> sumHolds(Criteria criteria) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(criteria),
+                Aggregation.group("bookId").sum("quantity").as("held"));
+        Map<String, Integer> held = new HashMap<>();
+        for (Document doc : mongoTemplate.aggregate(aggregation, StockHold.class, Document.class).getMappedResults()) {
+            held.put(doc.getString("_id"), ((Number) doc.get("held")).intValue());
+        }
+        return held;
+    }
+
+    private Map<String, Integer> findQuantities(Collection<String> bookIds) {
+        Query query = new Query(Criteria.where("_id").in(bookIds));
+        query.fields().include("quantity");
+        Map<String, Integer> quantities = new HashMap<>();
+        for (Book book : mongoTemplate.find(query, Book.class)) {
+            quantities.put(book.getId(), book.getQuantity() != null ? book.getQuantity() : 0);
+        }
+        return quantities;
+    }
+
+    private String holderId(HttpSession session) {
+        String holderId = (String) session.getAttribute(HOLDER_SESSION_KEY);
+        if (holderId == null) {
+            holderId = UUID.randomUUID().toString();
+            session.setAttribute(HOLDER_SESSION_KEY, holderId);
+        }
+        return holderId;
+    }
+
+    /**
+     * Outcome of a single-line hold; available is what this shopper could still hold.
+     */
+    public record HoldResult(boolean held, int available) {
+    }
+}
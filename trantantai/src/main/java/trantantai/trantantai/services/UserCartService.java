@@ -1,11 +1,15 @@
 package trantantai.trantantai.services;
 
+import org.bson.Document;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
-import trantantai.trantantai.daos.Item;
 import trantantai.trantantai.entities.UserCart;
-import trantantai.trantantai.repositories.IUserCartRepository;
 
+import java.util.Date;
 import java.util.List;
 import java.util.logging.Logger;
 
@@ -14,11 +18,11 @@ public class UserCartService {
 
     private static final Logger logger = Logger.getLogger(UserCartService.class.getName());
 
-    private final IUserCartRepository userCartRepository;
+    private final MongoTemplate mongoTemplate;
 
     @Autowired
-    public UserCartService(IUserCartRepository userCartRepository) {
-        this.userCartRepository = userCartRepository;
+    public UserCartService(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
     }
 
     /**
@@ -28,30 +32,13 @@ public class UserCartService {
      * @return number of carts that were updated
      */
     public int removeBookFromAllCarts(String bookId) {
-        List<UserCart> affectedCarts = userCartRepository.findByCartItems_BookId(bookId);
-        int updatedCount = 0;
-
-        for (UserCart cart : affectedCarts) {
-            List<Item> items = cart.getCartItems();
-            boolean removed = items.removeIf(item -> bookId.equals(item.getBookId()));
-
-            if (removed) {
-                userCartRepository.save(cart);
-                updatedCount++;
-                logger.info("Removed book " + bookId + " from cart of user: " + cart.getUserId());
-            }
-        }
-
-        if (updatedCount > 0) {
-            logger.info("Removed book " + bookId + " from " + updatedCount + " user carts");
-        }
-
-        return updatedCount;
+        return removeBooksFromAllCarts(List.of(bookId));
     }
 
     /**
      * Remove multiple books from all user carts.
      * Called when a category is deleted (cascade delete).
+     * Done server-side with one updateMulti: $pull on cartItems with bookId $in bookIds.
      * @param bookIds list of book IDs to remove
      * @return number of carts that were updated
      */
@@ -60,11 +47,17 @@ public class UserCartService {
             return 0;
         }
 
-        int totalUpdated = 0;
-        for (String bookId : bookIds) {
-            totalUpdated += removeBookFromAllCarts(bookId);
+        // Served by the cartItems.bookId index on user_carts
+        Query query = new Query(Criteria.where("cartItems.bookId").in(bookIds));
+        Update update = new Update()
+                .pull("cartItems", new Document("bookId", new Document("$in", bookIds)))
+                .set("lastUpdated", new Date());
+        long updatedCount = mongoTemplate.updateMulti(query, update, UserCart.class).getModifiedCount();
+
+        if (updatedCount > 0) {
+            logger.info("Removed " + bookIds.size() + " books from " + updatedCount + " user carts");
         }
 
-        return totalUpdated;
+        return (int) updatedCount;
     }
 }
@@ -7,6 +7,7 @@ import trantantai.trantantai.entities.Wishlist;
 import trantantai.trantantai.repositories.IWishlistRepository;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -47,16 +48,18 @@ public class WishlistService {
     }
 
     /**
-     * Get all wishlist items for a user with book details
+     * Get all wishlist items for a user as book summaries
      */
     public List<Book> getWishlistBooks(String userId) {
         List<Wishlist> wishlists = wishlistRepository.findByUserIdOrderByAddedAtDesc(userId);
+        List<String> bookIds = wishlists.stream()
+                .map(Wishlist::getBookId)
+                .collect(Collectors.toList());
 
-        return wishlists.stream()
-                .map(w -> {
-                    Optional<Book> book = bookService.getBookById(w.getBookId());
-                    return book.orElse(null);
-                })
+        // One projected query for all books, kept in wishlist order
+        Map<String, Book> bookMap = bookService.getBookSummariesByIds(bookIds);
+        return bookIds.stream()
+                .map(bookMap::get)
                 .filter(book -> book != null)
                 .collect(Collectors.toList());
     }
@@ -103,14 +106,13 @@ public class WishlistService {
     }
 
     /**
-     * Remove multiple books from all wishlists (when category is deleted)
+     * Remove multiple books from all wishlists (when category is deleted), with one delete by $in
+     * @return number of wishlist entries removed
      */
-    public void removeBooksFromAllWishlists(List<String> bookIds) {
+    public long removeBooksFromAllWishlists(List<String> bookIds) {
         if (bookIds == null || bookIds.isEmpty()) {
-            return;
-        }
-        for (String bookId : bookIds) {
-            wishlistRepository.deleteByBookId(bookId);
+            return 0;
         }
+        return wishlistRepository.deleteByBookIdIn(bookIds);
     }
 }
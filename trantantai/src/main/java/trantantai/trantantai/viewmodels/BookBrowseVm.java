@@ -0,0 +1,53 @@
+package trantantai.trantantai.viewmodels;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * One page of books plus facet counts for the current filter.
+ */
+@Schema(description = "Faceted book listing")
+public record BookBrowseVm(
+    @Schema(description = "Books on this page")
+    List<BookSummaryVm> items,
+
+    @Schema(description = "Total number of books matching the filter", example = "128")
+    long total,
+
+    @Schema(description = "Book counts per category (ignores the category filter)")
+    List<CategoryFacet> categories,
+
+    @Schema(description = "Book counts per price range")
+    List<PriceFacet> prices,
+
+    @Schema(description = "Number of matching books in stock", example = "120")
+    long inStock,
+
+    @Schema(description = "Number of matching books out of stock", example = "8")
+    long outOfStock
+) {
+    @Schema(description = "Category facet value")
+    public record CategoryFacet(
+        @Schema(description = "Category ID", example = "507f1f77bcf86cd799439012")
+        String id,
+
+        @Schema(description = "Category name", example = "Lập trình")
+        String name,
+
+        @Schema(description = "Number of books", example = "42")
+        long count
+    ) {}
+
+    @Schema(description = "Price range facet value [min, max)")
+    public record PriceFacet(
+        @Schema(description = "Lower bound in VND (inclusive)", example = "100000")
+        Integer min,
+
+        @Schema(description = "Upper bound in VND (exclusive), null for the last range", example = "200000")
+        Integer max,
+
+        @Schema(description = "Number of books", example = "37")
+        long count
+    ) {}
+}
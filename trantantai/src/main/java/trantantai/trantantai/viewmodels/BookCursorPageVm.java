@@ -0,0 +1,17 @@
+package trantantai.trantantai.viewmodels;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * One page of books in cursor (keyset) pagination mode.
+ */
+@Schema(description = "Cursor-paginated book list")
+public record BookCursorPageVm(
+    @Schema(description = "Books on this page")
+    List<BookGetVm> items,
+
+    @Schema(description = "Opaque cursor for the next page (pass as 'after'), null on the last page", example = "eyJzIjoiaWQiLCJ2IjpudWxsLCJpZCI6IjUwN2YxZjc3YmNmODZjZDc5OTQzOTAxMSJ9")
+    String nextCursor
+) {}
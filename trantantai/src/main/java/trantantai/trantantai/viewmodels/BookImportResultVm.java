@@ -0,0 +1,38 @@
+package trantantai.trantantai.viewmodels;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * Result of a bulk catalog import.
+ */
+@Schema(description = "Bulk book import report")
+public record BookImportResultVm(
+    @Schema(description = "Number of data rows read", example = "100000")
+    long totalRows,
+
+    @Schema(description = "Number of books inserted", example = "99985")
+    long inserted,
+
+    @Schema(description = "Number of rows rejected", example = "15")
+    long failed,
+
+    @Schema(description = "Per-row errors (first 1000 only)")
+    List<RowError> errors,
+
+    @Schema(description = "Whether more errors occurred than are listed", example = "false")
+    boolean errorsTruncated
+) {
+    /**
+     * Error for one input row.
+     */
+    @Schema(description = "Import error for one row")
+    public record RowError(
+        @Schema(description = "1-based row number (data rows, header excluded)", example = "42")
+        long row,
+
+        @Schema(description = "Error message", example = "Category not found: 507f1f77bcf86cd799439012")
+        String message
+    ) {}
+}
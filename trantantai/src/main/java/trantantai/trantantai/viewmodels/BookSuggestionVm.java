@@ -0,0 +1,18 @@
+package trantantai.trantantai.viewmodels;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Typeahead suggestion for the storefront search box.
+ */
+@Schema(description = "Search suggestion (book title or author)")
+public record BookSuggestionVm(
+    @Schema(description = "Suggested text", example = "Đắc Nhân Tâm")
+    String text,
+
+    @Schema(description = "Suggestion type: 'title' or 'author'", example = "title")
+    String type,
+
+    @Schema(description = "Number of books with this title or author", example = "1")
+    int bookCount
+) {}
@@ -0,0 +1,43 @@
+package trantantai.trantantai.viewmodels;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+import trantantai.trantantai.entities.Book;
+
+/**
+ * Lightweight book card: only the fields listing pages and list APIs display.
+ */
+@Schema(description = "Book summary (listing card)")
+public record BookSummaryVm(
+    @Schema(description = "Book unique identifier", example = "507f1f77bcf86cd799439011")
+    String id,
+    @Schema(description = "Book title", example = "Clean Code: A Handbook of Agile Software Craftsmanship")
+    String title,
+    @Schema(description = "Book author", example = "Robert C. Martin")
+    String author,
+    @Schema(description = "Book price in VND", example = "350000")
+    Double price,
+    @Schema(description = "Stock quantity", example = "25")
+    Integer quantity,
+    @Schema(description = "Cover image URL (first image), null if none", example = "https://res.cloudinary.com/demo/image/upload/v1/books/cleancode.jpg")
+    String imageUrl,
+    @Schema(description = "Category ID", example = "507f1f77bcf86cd799439012")
+    String categoryId,
+    @Schema(description = "Category name", example = "Lập trình")
+    String categoryName
+) {
+    public static BookSummaryVm from(@NotNull Book book) {
+        String categoryName = book.getCategory() != null ? book.getCategory().getName() : null;
+        String imageUrl = book.getImageUrls() != null && !book.getImageUrls().isEmpty() ? book.getImageUrls().get(0) : null;
+        return new BookSummaryVm(
+            book.getId(),
+            book.getTitle(),
+            book.getAuthor(),
+            book.getPrice(),
+            book.getQuantity(),
+            imageUrl,
+            book.getCategoryId(),
+            categoryName
+        );
+    }
+}
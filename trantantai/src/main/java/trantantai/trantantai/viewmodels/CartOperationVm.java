@@ -0,0 +1,22 @@
+package trantantai.trantantai.viewmodels;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * One operation of a batch cart mutation (POST /cart/batch).
+ */
+@Schema(description = "Cart operation: add (increase the line), update (set the line quantity) or remove")
+public record CartOperationVm(
+    @Schema(description = "Operation: add, update or remove", example = "add", requiredMode = Schema.RequiredMode.REQUIRED)
+    String op,
+
+    @Schema(description = "Book ID", example = "507f1f77bcf86cd799439011", requiredMode = Schema.RequiredMode.REQUIRED)
+    String bookId,
+
+    @Schema(description = "Quantity to add, or new line quantity for update (0 removes the line)", example = "1")
+    Integer quantity
+) {
+    public static final String ADD = "add";
+    public static final String UPDATE = "update";
+    public static final String REMOVE = "remove";
+}
@@ -0,0 +1,35 @@
+package trantantai.trantantai.viewmodels;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Outcome of one line of a bulk stock adjustment.
+ */
+@Schema(description = "Stock adjustment result for one book")
+public record StockAdjustmentResultVm(
+    @Schema(description = "Book ID", example = "507f1f77bcf86cd799439011")
+    String bookId,
+
+    @Schema(description = "Result status: APPLIED, NOT_FOUND, INVALID, INSUFFICIENT_STOCK, CONFLICT", example = "APPLIED")
+    String status,
+
+    @Schema(description = "Expected stock quantity after the adjustment (APPLIED only)", example = "45")
+    Integer quantity,
+
+    @Schema(description = "Error message (failed items only)", example = "Stock would become negative")
+    String message
+) {
+    public static final String APPLIED = "APPLIED";
+    public static final String NOT_FOUND = "NOT_FOUND";
+    public static final String INVALID = "INVALID";
+    public static final String INSUFFICIENT_STOCK = "INSUFFICIENT_STOCK";
+    public static final String CONFLICT = "CONFLICT";
+
+    public static StockAdjustmentResultVm applied(String bookId, int quantity) {
+        return new StockAdjustmentResultVm(bookId, APPLIED, quantity, null);
+    }
+
+    public static StockAdjustmentResultVm failed(String bookId, String status, String message) {
+        return new StockAdjustmentResultVm(bookId, status, null, message);
+    }
+}
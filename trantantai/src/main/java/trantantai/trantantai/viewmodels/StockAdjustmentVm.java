@@ -0,0 +1,18 @@
+package trantantai.trantantai.viewmodels;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * One line of a bulk stock adjustment: either a relative delta or an absolute quantity.
+ */
+@Schema(description = "Stock adjustment for one book (set exactly one of delta / absolute)")
+public record StockAdjustmentVm(
+    @Schema(description = "Book ID", example = "507f1f77bcf86cd799439011", requiredMode = Schema.RequiredMode.REQUIRED)
+    String bookId,
+
+    @Schema(description = "Quantity to add (negative to remove)", example = "20")
+    Integer delta,
+
+    @Schema(description = "New stock quantity", example = "50")
+    Integer absolute
+) {}
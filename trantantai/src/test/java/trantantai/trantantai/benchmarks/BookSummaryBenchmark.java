@@ -0,0 +1,128 @@
+package trantantai.trantantai.benchmarks;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.testcontainers.mongodb.MongoDBContainer;
+import trantantai.trantantai.entities.Book;
+import trantantai.trantantai.services.BookService;
+import trantantai.trantantai.viewmodels.BookGetVm;
+import trantantai.trantantai.viewmodels.BookSummaryVm;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One listing page (20 books) read as full Book entities mapped to BookGetVm, against the
+ * projected summary read (BookService.summaryQuery) mapped to BookSummaryVm.
+ * Needs Docker for the mongod. Run with the GC profiler for allocation per page
+ * (gc.alloc.rate.norm); the payload Mongo returns per page is printed at setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookSummaryBenchmark {
+
+    private static final int BOOKS = 1_000;
+    private static final int PAGE_SIZE = 20;
+    private static final int IMAGES_PER_BOOK = 5;
+
+    private MongoDBContainer mongo;
+    private MongoClient client;
+    private MongoTemplate mongoTemplate;
+    private final PageRequest page = PageRequest.of(3, PAGE_SIZE, Sort.by("_id"));
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        mongo = new MongoDBContainer("mongo:7.0");
+        mongo.start();
+        client = MongoClients.create(mongo.getConnectionString());
+        mongoTemplate = new MongoTemplate(client, "summary_benchmark");
+
+        List<Book> books = new ArrayList<>(BOOKS);
+        for (int i = 0; i < BOOKS; i++) {
+            Book book = new Book();
+            book.setTitle("Book title number " + i + " with a realistic length");
+            book.setAuthor("Author " + (i % 50));
+            book.setPrice(50_000.0 + i * 100);
+            book.setQuantity(i % 30);
+            book.setCategoryId("category" + (i % 8));
+            List<String> images = new ArrayList<>(IMAGES_PER_BOOK);
+            for (int j = 0; j < IMAGES_PER_BOOK; j++) {
+                images.add("https://res.cloudinary.com/demo/image/upload/v1700000000/books/book_" + i + "_" + j + ".jpg");
+            }
+            book.setImageUrls(images);
+            books.add(book);
+        }
+        mongoTemplate.insertAll(books);
+
+        MongoCollection<RawBsonDocument> raw = client.getDatabase("summary_benchmark")
+                .getCollection("book", RawBsonDocument.class);
+        Document summaryFields = BookService.summaryQuery(new Criteria()).getFieldsObject();
+        System.out.printf("%nBytes returned per page: full=%d, summary=%d%n",
+                pageBytes(raw, new Document()), pageBytes(raw, summaryFields));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        client.close();
+        mongo.stop();
+    }
+
+    @Benchmark
+    public List<BookGetVm> fullBooks() {
+        return mongoTemplate.find(new Query().with(page), Book.class).stream()
+                .map(BookGetVm::from)
+                .toList();
+    }
+
+    @Benchmark
+    public List<BookSummaryVm> summaries() {
+        return mongoTemplate.find(BookService.summaryQuery(new Criteria()).with(page), Book.class).stream()
+                .map(BookSummaryVm::from)
+                .toList();
+    }
+
+    private long pageBytes(MongoCollection<RawBsonDocument> raw, Document projection) {
+        long bytes = 0;
+        for (RawBsonDocument doc : raw.find().projection(projection).sort(new Document("_id", 1))
+                .skip((int) page.getOffset()).limit(PAGE_SIZE)) {
+            bytes += doc.getByteBuffer().remaining();
+        }
+        return bytes;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(BookSummaryBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,110 @@
+package trantantai.trantantai.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import trantantai.trantantai.daos.Cart;
+import trantantai.trantantai.daos.Item;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-line cart operations on carts of 10, 100 and 1,000 lines. With keyed storage,
+ * addRemove / update stay flat as the cart grows and buildCart / merge grow linearly.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CartBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int lines;
+
+    private List<Item> sessionItems;
+    private List<Item> savedItems;
+    private String[] bookIds;
+    private Cart cart;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        bookIds = new String[lines];
+        sessionItems = new ArrayList<>(lines);
+        savedItems = new ArrayList<>(lines);
+        for (int i = 0; i < lines; i++) {
+            bookIds[i] = String.format("%024x", i);
+            sessionItems.add(new Item(bookIds[i], "Book " + i, 100_000.0 + i, 1));
+            // Half of the saved cart overlaps the session cart, half is new
+            String savedId = i % 2 == 0 ? bookIds[i] : String.format("%024x", lines + i);
+            savedItems.add(new Item(savedId, "Book " + i, 100_000.0 + i, 2));
+        }
+        cart = new Cart();
+        cart.setCartItems(copy(sessionItems));
+    }
+
+    // Add a new line and remove it again, leaving the cart unchanged
+    @Benchmark
+    public int addRemove() {
+        cart.addItems(new Item("new-line", "New book", 50_000.0, 1));
+        cart.removeItems("new-line");
+        return cart.size();
+    }
+
+    @Benchmark
+    public int update() {
+        String bookId = bookIds[next++ % lines];
+        cart.updateItems(bookId, (next & 1) + 1);
+        return cart.getTotalQuantity();
+    }
+
+    @Benchmark
+    public Cart buildCart() {
+        Cart built = new Cart();
+        built.setCartItems(sessionItems);
+        return built;
+    }
+
+    // Same steps as CartService.mergeCartItems, without the stock lookup
+    @Benchmark
+    public Cart merge() {
+        Cart merged = new Cart();
+        merged.setCartItems(sessionItems);
+        for (Item saved : savedItems) {
+            Item existing = merged.getItem(saved.getBookId());
+            int quantity = existing != null ? existing.getQuantity() + saved.getQuantity() : saved.getQuantity();
+            merged.putItem(new Item(saved.getBookId(), saved.getBookName(), saved.getPrice(), quantity));
+        }
+        return merged;
+    }
+
+    private static List<Item> copy(List<Item> items) {
+        List<Item> copies = new ArrayList<>(items.size());
+        for (Item item : items) {
+            copies.add(new Item(item.getBookId(), item.getBookName(), item.getPrice(), item.getQuantity()));
+        }
+        return copies;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CartBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
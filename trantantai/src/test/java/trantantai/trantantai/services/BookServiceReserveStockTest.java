@@ -0,0 +1,166 @@
+package trantantai.trantantai.services;
+
+import com.mongodb.MongoClientSettings;
+import com.mongodb.ConnectionString;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.mongodb.MongoDBContainer;
+import trantantai.trantantai.entities.Book;
+import trantantai.trantantai.repositories.IBookRepository;
+import trantantai.trantantai.repositories.ICategoryRepository;
+import trantantai.trantantai.repositories.IWishlistRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Concurrency test for {@link BookService#reserveStock} against a real mongod:
+ * 200 virtual threads check out the same scarce book at once.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class BookServiceReserveStockTest {
+
+    private static final int ORDERS = 200;
+    private static final int SCARCE_STOCK = 50;
+    private static final int PLENTIFUL_STOCK = 1_000;
+
+    @Container
+    static final MongoDBContainer mongo = new MongoDBContainer("mongo:7.0");
+
+    // update / find commands sent to the books collection (the reservation's round trips)
+    private static final AtomicLong bookCommands = new AtomicLong();
+
+    private static MongoClient client;
+    private static MongoTemplate mongoTemplate;
+
+    private BookService bookService;
+
+    @BeforeAll
+    static void connect() {
+        CommandListener counter = new CommandListener() {
+            @Override
+            public void commandStarted(CommandStartedEvent event) {
+                BsonValue target = event.getCommand().get(event.getCommandName());
+                if (target != null && target.isString() && "book".equals(target.asString().getValue())) {
+                    bookCommands.incrementAndGet();
+                }
+            }
+        };
+        client = MongoClients.create(MongoClientSettings.builder()
+                .applyConnectionString(new ConnectionString(mongo.getConnectionString()))
+                .addCommandListener(counter)
+                .build());
+        mongoTemplate = new MongoTemplate(client, "reserve_stock_test");
+    }
+
+    @AfterAll
+    static void disconnect() {
+        client.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate.dropCollection(Book.class);
+        bookService = new BookService(mock(IBookRepository.class), mock(ICategoryRepository.class), mongoTemplate,
+                mock(UserCartService.class), mock(IWishlistRepository.class), mock(CategoryCache.class),
+                mock(BookSearchIndex.class), mock(BookSuggestIndex.class), mock(CacheInvalidationBus.class),
+                mock(DeletedBookLog.class));
+    }
+
+    @Test
+    void concurrentOrdersNeverOversellOrLeakStock() throws Exception {
+        insertBook("scarce", SCARCE_STOCK);
+        insertBook("plentiful", PLENTIFUL_STOCK);
+        bookCommands.set(0);
+
+        List<Future<BookService.StockReservation>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < ORDERS; i++) {
+                // Every order also takes a line that always succeeds, so failed orders must compensate it
+                results.add(executor.submit(() -> bookService.reserveStock(Map.of("scarce", 1, "plentiful", 1))));
+            }
+        }
+
+        int reserved = 0;
+        for (Future<BookService.StockReservation> result : results) {
+            BookService.StockReservation reservation = result.get();
+            if (reservation.reserved()) {
+                reserved++;
+            } else {
+                assertEquals(List.of("scarce"), reservation.failedBookIds());
+            }
+        }
+
+        // No oversell: exactly the available copies were sold
+        assertEquals(SCARCE_STOCK, reserved);
+        assertEquals(0, quantity("scarce"));
+        // No leaked stock: failed orders gave their other line back
+        assertEquals(PLENTIFUL_STOCK - reserved, quantity("plentiful"));
+        // No reservation markers left behind
+        assertEquals(0, mongoTemplate.count(new Query(Criteria.where("stockHolds").gt(new Document())), Book.class));
+        // Bounded round trips: 2 per successful order, 3 per failed one
+        long maxCommands = 2L * reserved + 3L * (ORDERS - reserved);
+        assertTrue(bookCommands.get() <= maxCommands,
+                "expected at most " + maxCommands + " book commands, was " + bookCommands.get());
+    }
+
+    @Test
+    void updateBookKeepsInFlightReservationMarker() {
+        insertBook("edited", 10);
+        mongoTemplate.getCollection("book").updateOne(new Document("_id", "edited"),
+                new Document("$set", new Document("stockHolds.order1", 2).append("reviewRevision", 7L)));
+
+        Book edit = new Book();
+        edit.setId("edited");
+        edit.setTitle("New title");
+        edit.setAuthor("Author");
+        edit.setPrice(120_000.0);
+        edit.setQuantity(8);
+        bookService.updateBook(edit);
+
+        Document stored = mongoTemplate.getCollection("book").find(new Document("_id", "edited")).first();
+        assertNotNull(stored);
+        assertEquals("New title", stored.getString("title"));
+        assertEquals(2, stored.get("stockHolds", Document.class).getInteger("order1"));
+        assertEquals(7L, stored.getLong("reviewRevision"));
+    }
+
+    private void insertBook(String id, int quantity) {
+        Book book = new Book();
+        book.setId(id);
+        book.setTitle(id);
+        book.setAuthor("Author");
+        book.setPrice(100_000.0);
+        book.setQuantity(quantity);
+        mongoTemplate.insert(book);
+    }
+
+    private int quantity(String id) {
+        Book book = mongoTemplate.findById(id, Book.class);
+        assertNotNull(book);
+        return book.getQuantity();
+    }
+}
@@ -0,0 +1,154 @@
+package trantantai.trantantai.services;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.mongodb.MongoDBContainer;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Two application contexts (two "nodes") sharing one {@link MongoCacheInvalidationBus}:
+ * an event published on one node must reach the other, and must not echo back to the publisher.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class MongoCacheInvalidationBusTest {
+
+    private static final long TIMEOUT_SECONDS = 10;
+
+    @Container
+    static final MongoDBContainer mongo = new MongoDBContainer("mongo:7.0");
+
+    private static MongoClient client;
+
+    private ConfigurableApplicationContext nodeA;
+    private ConfigurableApplicationContext nodeB;
+
+    @BeforeAll
+    static void connect() {
+        client = MongoClients.create(mongo.getConnectionString());
+    }
+
+    @AfterAll
+    static void disconnect() {
+        client.close();
+    }
+
+    @BeforeEach
+    void startNodes() throws InterruptedException {
+        client.getDatabase(BusNode.DATABASE).drop();
+        nodeA = startNode();
+        nodeB = startNode();
+        awaitTailing(nodeA, nodeB);
+        awaitTailing(nodeB, nodeA);
+    }
+
+    @AfterEach
+    void stopNodes() {
+        nodeA.close();
+        nodeB.close();
+    }
+
+    @Test
+    void eventPublishedOnOneNodeReachesTheOther() throws InterruptedException {
+        CacheInvalidationEvent event = CacheInvalidationEvent.booksDeleted(List.of("book1", "book2"));
+        bus(nodeA).publish(event);
+
+        assertEquals(event, events(nodeB).poll(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        // The publisher gets its own event once, delivered locally by publish()
+        assertEquals(event, events(nodeA).poll());
+    }
+
+    @Test
+    void publisherDoesNotReceiveItsOwnEventBack() throws InterruptedException {
+        CacheInvalidationEvent first = CacheInvalidationEvent.categorySaved("cat1");
+        CacheInvalidationEvent second = CacheInvalidationEvent.booksSaved(List.of("book1"));
+        bus(nodeA).publish(first);
+        assertEquals(first, events(nodeA).poll());
+
+        // Node A reads the capped collection in insertion order, so once B's later event has
+        // arrived, an echo of A's own event would already be in the queue
+        bus(nodeB).publish(second);
+        assertEquals(second, events(nodeA).poll(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertTrue(events(nodeA).isEmpty(), "unexpected events on publisher: " + events(nodeA));
+        assertEquals(first, events(nodeB).poll(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+    }
+
+    private static ConfigurableApplicationContext startNode() {
+        return new SpringApplicationBuilder(BusNode.class)
+                .web(WebApplicationType.NONE)
+                .properties("cache.invalidation.bus=mongo", "spring.main.banner-mode=off")
+                .run();
+    }
+
+    // A tailing cursor only sees events inserted after it opened: ping until one gets through
+    private static void awaitTailing(ConfigurableApplicationContext from, ConfigurableApplicationContext to)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+        CacheInvalidationEvent received = null;
+        while (received == null && System.nanoTime() < deadline) {
+            bus(from).publish(CacheInvalidationEvent.categorySaved("ping"));
+            received = events(to).poll(200, TimeUnit.MILLISECONDS);
+        }
+        assertNotNull(received, "bus did not start tailing within " + TIMEOUT_SECONDS + "s");
+        // Let stragglers from the ping loop arrive, then start from empty queues
+        Thread.sleep(500);
+        events(from).clear();
+        events(to).clear();
+    }
+
+    private static CacheInvalidationBus bus(ConfigurableApplicationContext node) {
+        return node.getBean(CacheInvalidationBus.class);
+    }
+
+    private static BlockingQueue<CacheInvalidationEvent> events(ConfigurableApplicationContext node) {
+        return node.getBean(RecordingListener.class).events;
+    }
+
+    @Configuration
+    @Import(MongoCacheInvalidationBus.class)
+    static class BusNode {
+
+        static final String DATABASE = "invalidation_bus_test";
+
+        @Bean
+        MongoTemplate mongoTemplate() {
+            return new MongoTemplate(client, DATABASE);
+        }
+
+        @Bean
+        RecordingListener recordingListener() {
+            return new RecordingListener();
+        }
+    }
+
+    static class RecordingListener implements CacheInvalidationListener {
+
+        final BlockingQueue<CacheInvalidationEvent> events = new LinkedBlockingQueue<>();
+
+        @Override
+        public void onInvalidation(CacheInvalidationEvent event) {
+            events.add(event);
+        }
+    }
+}